@@ -0,0 +1,52 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link VmAllocationPolicyMigrationDynamicUsagePredictionControl}.
+ *
+ * {@link #getOptimizedAllocationMap(FreshFleetState)} runs a whole controller interval each time,
+ * so the controller keeps adding observations, fitting its model again and changing the active hosts.
+ * The clock does not move between calls, so after the first calls of an iteration the fleet is consolidated
+ * and the usage observed is constant: the benchmark measures the controller in that steady state,
+ * starting each iteration from the fleet given by the parameters.
+ *
+ * @author yuxin wu
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerBenchmark {
+
+    @Benchmark
+    public Map<Vm, Host> getOptimizedAllocationMap(final FreshFleetState fleet) {
+        return fleet.policy.getOptimizedAllocationMap(fleet.vmList);
+    }
+
+    /**
+     * Forecasts the all CPU usage, as the controller predict does, from the model kept by the forecaster.
+     */
+    @Benchmark
+    public double predict(final FleetState fleet) {
+        return fleet.policy.getForecaster().forecast(2);
+    }
+
+    @Benchmark
+    public Optional<Host> findHostForVm(final FleetState fleet) {
+        return fleet.policy.findHostForVm(fleet.probeVm);
+    }
+}
@@ -0,0 +1,101 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.brokers.DatacenterBroker;
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.cloudlets.CloudletSimple;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.datacenters.Datacenter;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.util.Log;
+import org.cloudbus.cloudsim.utilizationmodels.UtilizationModelStochastic;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A datacenter built with the {@link Helper} factories and simulated for {@link #historyLength}
+ * scheduling intervals, so that hosts, VMs and the controller have a history to work on.
+ *
+ * @author yuxin wu
+ */
+@State(Scope.Benchmark)
+public class FleetState {
+    static final int SCHEDULING_INTERVAL = 10;
+
+    /**
+     * A cloudlet length the VMs cannot finish while the fleet is simulated.
+     */
+    private static final long CLOUDLET_LENGTH = 1_000_000_000L;
+
+    @Param({"20", "1000", "10000", "100000"})
+    public int hosts;
+
+    /**
+     * The number of VMs by host. Each host has 4 PEs and each VM 2, so at most 2 VMs fit into a host.
+     */
+    @Param({"0.5", "2"})
+    public double vmsPerHost;
+
+    /**
+     * The number of scheduling intervals simulated before measuring.
+     */
+    @Param({"12", "288"})
+    public int historyLength;
+
+    CloudSim simulation;
+    List<Host> hostList;
+    List<Vm> vmList;
+    VmAllocationPolicyMigrationDynamicUsagePredictionControl policy;
+
+    /**
+     * A VM that is not submitted, used to look for a host.
+     */
+    Vm probeVm;
+
+    /**
+     * The number of intervals the hosts were updated after the fleet was simulated.
+     */
+    int updates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Log.disable();
+        simulation = new CloudSim();
+        updates = 0;
+
+        hostList = new ArrayList<>(hosts);
+        for (int i = 0; i < hosts; i++) {
+            hostList.add(Helper.createALazzySimpleHost());
+        }
+
+        policy = new VmAllocationPolicyMigrationDynamicUsagePredictionControl();
+        final Datacenter datacenter = new DatacenterSimple(simulation, hostList, policy);
+        datacenter.setSchedulingInterval(SCHEDULING_INTERVAL);
+
+        final int vms = Math.max(1, (int)(hosts * vmsPerHost));
+        vmList = new ArrayList<>(vms);
+        final List<Cloudlet> cloudletList = new ArrayList<>(vms);
+        for (int i = 0; i < vms; i++) {
+            vmList.add(Helper.createALazzyVm(i));
+            cloudletList.add(new CloudletSimple(i, CLOUDLET_LENGTH, 1)
+                    .setUtilizationModelCpu(new UtilizationModelStochastic(i)));
+        }
+
+        final DatacenterBroker broker = new DatacenterBrokerSimple(simulation);
+        broker.submitVmList(vmList);
+        broker.submitCloudletList(cloudletList);
+
+        simulation.terminateAt(historyLength * SCHEDULING_INTERVAL);
+        simulation.start();
+
+        probeVm = Helper.createALazzyVm(vms);
+    }
+}
@@ -0,0 +1,26 @@
+package io.yuxin.cloudsimplus;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A {@link FleetState} simulated again before each iteration instead of once by trial,
+ * for benchmarks that change the fleet, so that every iteration starts from the fleet given by the parameters.
+ *
+ * @author yuxin wu
+ */
+@State(Scope.Benchmark)
+public class FreshFleetState extends FleetState {
+    /**
+     * Does nothing, the fleet is built by {@link #setUpIteration()}.
+     */
+    @Override
+    public void setUp() {/**/}
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        super.setUp();
+    }
+}
@@ -0,0 +1,65 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link SimpleHost} methods called for every host on each scheduling interval.
+ * Each benchmark goes through all the hosts of the fleet, like the datacenter and the controller do.
+ *
+ * @author yuxin wu
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HostBenchmark {
+
+    /**
+     * Updates the processing of all hosts for the next scheduling interval,
+     * which also adds an entry to their state and utilization histories.
+     * The fleet is simulated again before each iteration,
+     * otherwise the growing histories would make each iteration slower and heavier on the GC than the previous one.
+     */
+    @Benchmark
+    public double updateProcessing(final FreshFleetState fleet) {
+        final double time = fleet.simulation.clock() + FleetState.SCHEDULING_INTERVAL * (++fleet.updates);
+        double nextTime = Double.MAX_VALUE;
+        for (final Host host : fleet.hostList) {
+            nextTime = Math.min(nextTime, host.updateProcessing(time));
+        }
+        return nextTime;
+    }
+
+    @Benchmark
+    public int getUtilizationHistory(final FleetState fleet) {
+        int length = 0;
+        for (final Host host : fleet.hostList) {
+            length += host.getUtilizationHistory().length;
+        }
+        return length;
+    }
+
+    /**
+     * Computes the CPU utilization of all hosts, as after they were updated,
+     * instead of just reading the value they cached.
+     */
+    @Benchmark
+    public double getUtilizationOfCpu(final FleetState fleet) {
+        double utilization = 0;
+        for (final Host host : fleet.hostList) {
+            ((SimpleHost) host).invalidateCpuCache();
+            utilization += host.getUtilizationOfCpu();
+        }
+        return utilization;
+    }
+}
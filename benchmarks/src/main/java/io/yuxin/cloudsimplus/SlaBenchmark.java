@@ -0,0 +1,29 @@
+package io.yuxin.cloudsimplus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the SLA violation computed for the whole fleet on each controller interval.
+ *
+ * @author yuxin wu
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlaBenchmark {
+
+    @Benchmark
+    public double getSlaViolationTimePercentageForHosts(final FleetState fleet) {
+        return new Helper().getSlaViolationTimePercentageForHosts(fleet.hostList);
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.signaflo.timeseries.model.arima;
+
+/**
+ * signaflo 0.4 keeps the fitted coefficients of an {@link Arima} model package-private.
+ * This class just exposes them, so a fitted model can be evaluated incrementally
+ * outside the library.
+ *
+ * It is declared in the package of the library (a split package) to reach its internals,
+ * so it only works with signaflo 0.4 on the class path and not as a module.
+ * It will break if the version changes, since those internals are not part of the library API:
+ * IncrementalArimaForecasterTest checks the forecasts against the library after an upgrade.
+ *
+ * @author yuxin wu
+ */
+public final class ArimaCoefficientsAccess {
+
+    private ArimaCoefficientsAccess() {
+    }
+
+    /**
+     * Gets the non-seasonal and seasonal AR coefficients expanded into a single polynomial,
+     * such that {@code y(t) = sum(ar[i] * y(t-i-1)) + ...}, without the differencing terms.
+     */
+    public static double[] getExpandedAutoRegressive(final Arima model) {
+        return model.coefficients().getAllAutoRegressiveCoefficients();
+    }
+
+    /**
+     * Gets the non-seasonal and seasonal MA coefficients expanded into a single polynomial,
+     * such that {@code y(t) = ... + e(t) + sum(ma[j] * e(t-j-1))}.
+     */
+    public static double[] getExpandedMovingAverage(final Arima model) {
+        return model.coefficients().getAllMovingAverageCoefficients();
+    }
+
+    public static int getDifferences(final Arima model) {
+        return model.coefficients().d();
+    }
+
+    public static int getSeasonalDifferences(final Arima model) {
+        return model.coefficients().D();
+    }
+
+    public static double getMean(final Arima model) {
+        return model.coefficients().mean();
+    }
+}
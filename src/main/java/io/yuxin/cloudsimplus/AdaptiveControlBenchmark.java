@@ -0,0 +1,61 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G5Xeon3075;
+import org.cloudbus.cloudsim.util.Log;
+
+/**
+ * Runs the same scenarios with the controller re-planning at every interval
+ * and with a {@link StabilityDetector}, printing the {@link PhaseTimer} of both runs,
+ * to measure how much controller time the adaptive interval saves and what it costs in energy and SLA.
+ *
+ * <p>Usage: {@code AdaptiveControlBenchmark [hosts,hosts,...]}</p>
+ *
+ * @author yuxin wu
+ */
+public final class AdaptiveControlBenchmark {
+    private static final int[] DEF_HOSTS = {100, 1000};
+    private static final int CLOUDLETS_BY_VM = 20;
+    private static final double SCHEDULING_INTERVAL = 10;
+
+    private AdaptiveControlBenchmark(){/**/}
+
+    public static void main(String[] args) {
+        final int[] hosts = args.length > 0 ? ScaleBenchmark.parseInts(args[0]) : DEF_HOSTS;
+
+        Log.disable();
+        final ScenarioRunner runner = new ScenarioRunner(false);
+        // a first small run to load the classes, which is not reported
+        runner.run(new SimulationScenario(20, 10, 50, SCHEDULING_INTERVAL));
+
+        for (final int h : hosts) {
+            final int vms = Math.max(1, h / 2);
+            final ScenarioResult fixed = runner.run(new SimulationScenario(
+                    h + "h-fixed", h, vms, vms * CLOUDLETS_BY_VM, SCHEDULING_INTERVAL,
+                    VmAllocationPolicyMigrationDynamicUsagePredictionControl::new,
+                    PowerModelSpecPowerHpProLiantMl110G5Xeon3075::new));
+            final ScenarioResult adaptive = runner.run(new SimulationScenario(
+                    h + "h-adaptive", h, vms, vms * CLOUDLETS_BY_VM, SCHEDULING_INTERVAL,
+                    AdaptiveControlBenchmark::createAdaptivePolicy,
+                    PowerModelSpecPowerHpProLiantMl110G5Xeon3075::new));
+
+            print(fixed);
+            print(adaptive);
+            final long adaptiveNanos = adaptive.getPhaseTimer().getTotalNanos();
+            System.out.printf("%n%d hosts: controller time %.1f ms re-planning every interval, %.1f ms adaptive (%.1fx)%n",
+                    h, fixed.getPhaseTimer().getTotalNanos() / 1e6, adaptiveNanos / 1e6,
+                    adaptiveNanos == 0 ? 0 : fixed.getPhaseTimer().getTotalNanos() / (double) adaptiveNanos);
+        }
+    }
+
+    private static VmAllocationPolicyMigrationDynamicUsagePredictionControl createAdaptivePolicy() {
+        final VmAllocationPolicyMigrationDynamicUsagePredictionControl policy =
+                new VmAllocationPolicyMigrationDynamicUsagePredictionControl();
+        policy.setStabilityDetector(new StabilityDetector());
+        return policy;
+    }
+
+    private static void print(final ScenarioResult result) {
+        System.out.printf("%n%s, %d intervals skipped%n", result, result.getSkippedIntervals());
+        result.getPhaseTimer().print(System.out);
+    }
+}
@@ -0,0 +1,18 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * The heuristic used to place a batch of VMs, which are taken in decreasing order of requested MIPS.
+ *
+ * @author yuxin wu
+ * @see VmAllocationPolicyMigrationDynamicUsagePredictionControl#allocateHostsForVms(java.util.List, BatchPlacementMode)
+ */
+public enum BatchPlacementMode {
+    /**
+     * Places each VM into the first host, in id order, where it fits.
+     */
+    FIRST_FIT_DECREASING,
+    /**
+     * Places each VM into the host where it fits leaving the least MIPS available.
+     */
+    BEST_FIT_DECREASING
+}
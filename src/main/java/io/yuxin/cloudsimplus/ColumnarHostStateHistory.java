@@ -0,0 +1,121 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * A {@link HostStateHistory} that keeps each field of the entries in a primitive array,
+ * so that each entry costs 25 bytes instead of an object.
+ *
+ * The arrays are used as a circular buffer, which grows as needed up to the maximum number of entries.
+ *
+ * @author yuxin wu
+ */
+public class ColumnarHostStateHistory extends HostStateHistory {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private double[] times;
+    private double[] allocatedMips;
+    private double[] requestedMips;
+    private boolean[] active;
+
+    /**
+     * The position of the oldest entry inside the arrays.
+     */
+    private int head;
+    private int size;
+
+    /**
+     * @param maxEntries the maximum number of entries kept, or {@link #UNBOUNDED}
+     * @param mergeRuns true to merge consecutive entries with the same state
+     */
+    public ColumnarHostStateHistory(final int maxEntries, final boolean mergeRuns) {
+        super(maxEntries, mergeRuns);
+        final int capacity = maxEntries == UNBOUNDED ? INITIAL_CAPACITY : Math.min(maxEntries, INITIAL_CAPACITY);
+        this.times = new double[capacity];
+        this.allocatedMips = new double[capacity];
+        this.requestedMips = new double[capacity];
+        this.active = new boolean[capacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int position(final int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (head + index) % times.length;
+    }
+
+    @Override
+    public double getTime(final int index) {
+        return times[position(index)];
+    }
+
+    @Override
+    public double getAllocatedMips(final int index) {
+        return allocatedMips[position(index)];
+    }
+
+    @Override
+    public double getRequestedMips(final int index) {
+        return requestedMips[position(index)];
+    }
+
+    @Override
+    public boolean isActive(final int index) {
+        return active[position(index)];
+    }
+
+    @Override
+    protected void append(final double time, final double allocatedMips, final double requestedMips, final boolean active) {
+        if(size == times.length) {
+            grow();
+        }
+        size++;
+        set(size - 1, time, allocatedMips, requestedMips, active);
+    }
+
+    @Override
+    protected void set(final int index, final double time, final double allocatedMips, final double requestedMips, final boolean active) {
+        final int position = position(index);
+        this.times[position] = time;
+        this.allocatedMips[position] = allocatedMips;
+        this.requestedMips[position] = requestedMips;
+        this.active[position] = active;
+    }
+
+    @Override
+    protected void removeFirst() {
+        if(size == 0) {
+            return;
+        }
+        head = (head + 1) % times.length;
+        size--;
+    }
+
+    /**
+     * Doubles the arrays (up to the maximum number of entries), moving the oldest entry to the start.
+     */
+    private void grow() {
+        final int capacity = getMaxEntries() == UNBOUNDED ? times.length * 2 : Math.min(times.length * 2, getMaxEntries());
+        times = copy(times, capacity);
+        allocatedMips = copy(allocatedMips, capacity);
+        requestedMips = copy(requestedMips, capacity);
+
+        final boolean[] newActive = new boolean[capacity];
+        for (int i = 0; i < size; i++) {
+            newActive[i] = active[(head + i) % active.length];
+        }
+        active = newActive;
+        head = 0;
+    }
+
+    private double[] copy(final double[] values, final int capacity) {
+        final double[] newValues = new double[capacity];
+        final int firstPart = Math.min(size, values.length - head);
+        System.arraycopy(values, head, newValues, 0, firstPart);
+        System.arraycopy(values, 0, newValues, firstPart, size - firstPart);
+        return newValues;
+    }
+}
@@ -0,0 +1,164 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.vms.Vm;
+
+import java.util.*;
+
+/**
+ * Plans VM migrations to empty the least used running hosts,
+ * so that they become idle and can be powered off.
+ *
+ * The running hosts are taken in increasing order of CPU usage and
+ * the VMs of each one are packed into the other running hosts by best-fit decreasing.
+ * A host is only emptied if all its VMs fit, otherwise its VMs stay where they are.
+ *
+ * The planning cost is bounded by a maximum number of migrations
+ * and a time budget for each call.
+ *
+ * @author yuxin wu
+ */
+public class ConsolidationPlanner {
+    public static final int DEF_MAX_MIGRATIONS = 50;
+    public static final long DEF_TIME_BUDGET_NANOS = 5_000_000;
+
+    private static final Comparator<Vm> BY_DECREASING_MIPS =
+            Comparator.comparingDouble(Vm::getCurrentRequestedTotalMips).reversed();
+
+    private int maxMigrations;
+    private long timeBudgetNanos;
+
+    public ConsolidationPlanner() {
+        this(DEF_MAX_MIGRATIONS, DEF_TIME_BUDGET_NANOS);
+    }
+
+    /**
+     * @param maxMigrations the maximum number of VM migrations planned in each call
+     * @param timeBudgetNanos the maximum time to plan, in nanoseconds.
+     *                        It's checked before trying to empty each host.
+     */
+    public ConsolidationPlanner(final int maxMigrations, final long timeBudgetNanos) {
+        setMaxMigrations(maxMigrations);
+        setTimeBudgetNanos(timeBudgetNanos);
+    }
+
+    /**
+     * Plans the migrations to empty some running hosts.
+     *
+     * @param runningHosts the hosts which are active and have VMs running
+     * @param hostsToRelease the number of hosts that should be emptied
+     * @return the migration map, where each key is a VM and each value is the host where it has to be migrated
+     */
+    public Map<Vm, Host> plan(final Collection<? extends Host> runningHosts, final int hostsToRelease) {
+        if(hostsToRelease <= 0 || runningHosts.size() < 2 || maxMigrations == 0) {
+            return Collections.emptyMap();
+        }
+
+        final long deadline = System.nanoTime() + timeBudgetNanos;
+        final List<HostCapacity> capacities = new ArrayList<>(runningHosts.size());
+        for (final Host host : runningHosts) {
+            capacities.add(new HostCapacity(host));
+        }
+        capacities.sort(Comparator.comparingDouble(c -> c.getHost().getUtilizationOfCpuMips()));
+
+        final Map<Vm, Host> migrationMap = new LinkedHashMap<>();
+        final Set<HostCapacity> released = new HashSet<>();
+        for (final HostCapacity source : capacities) {
+            if(released.size() == hostsToRelease || System.nanoTime() > deadline) {
+                break;
+            }
+            if(source.getPlacedVms() > 0 || !isMigratable(source.getHost())) {
+                continue;
+            }
+
+            final List<Vm> vms = new ArrayList<>(source.getHost().getVmList());
+            if(migrationMap.size() + vms.size() > maxMigrations) {
+                continue;
+            }
+
+            released.add(source);
+            if(!packVms(vms, source, capacities, released, migrationMap)) {
+                released.remove(source);
+            }
+        }
+
+        return migrationMap;
+    }
+
+    private static boolean isMigratable(final Host host) {
+        if(!host.getVmsMigratingIn().isEmpty() || !host.getVmsMigratingOut().isEmpty()) {
+            return false;
+        }
+        for (final Vm vm : host.getVmList()) {
+            if(vm.isInMigration()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Places all VMs of a source host into the other hosts, or none of them.
+     *
+     * @return true if all VMs were placed, false otherwise
+     */
+    private boolean packVms(
+            final List<Vm> vms, final HostCapacity source, final List<HostCapacity> capacities,
+            final Set<HostCapacity> released, final Map<Vm, Host> migrationMap)
+    {
+        vms.sort(BY_DECREASING_MIPS);
+        final Map<Vm, HostCapacity> placements = new LinkedHashMap<>();
+        for (final Vm vm : vms) {
+            final HostCapacity target = findBestFit(vm, capacities, released);
+            if(target == null) {
+                placements.forEach((placedVm, capacity) -> capacity.deallocate(placedVm));
+                return false;
+            }
+            target.allocate(vm);
+            placements.put(vm, target);
+        }
+
+        placements.forEach((vm, capacity) -> migrationMap.put(vm, capacity.getHost()));
+        return true;
+    }
+
+    /**
+     * Finds the host which will have the least MIPS left after placing a VM.
+     */
+    private static HostCapacity findBestFit(final Vm vm, final List<HostCapacity> capacities, final Set<HostCapacity> released) {
+        HostCapacity best = null;
+        for (final HostCapacity capacity : capacities) {
+            if(released.contains(capacity) || !capacity.isSuitableForVm(vm)) {
+                continue;
+            }
+            if(best == null || capacity.getAvailableMips() < best.getAvailableMips()) {
+                best = capacity;
+            }
+        }
+        return best;
+    }
+
+    public int getMaxMigrations() {
+        return maxMigrations;
+    }
+
+    public final ConsolidationPlanner setMaxMigrations(final int maxMigrations) {
+        if(maxMigrations < 0) {
+            throw new IllegalArgumentException("The maximum number of migrations cannot be negative.");
+        }
+        this.maxMigrations = maxMigrations;
+        return this;
+    }
+
+    public long getTimeBudgetNanos() {
+        return timeBudgetNanos;
+    }
+
+    public final ConsolidationPlanner setTimeBudgetNanos(final long timeBudgetNanos) {
+        if(timeBudgetNanos < 0) {
+            throw new IllegalArgumentException("The time budget cannot be negative.");
+        }
+        this.timeBudgetNanos = timeBudgetNanos;
+        return this;
+    }
+}
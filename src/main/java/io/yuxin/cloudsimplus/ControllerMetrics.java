@@ -0,0 +1,177 @@
+package io.yuxin.cloudsimplus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The gauges and counters of the controller inside
+ * {@link VmAllocationPolicyMigrationDynamicUsagePredictionControl},
+ * published to the {@link MetricsSink}s at the end of each scheduling interval.
+ *
+ * Gauges keep the value of the last interval (NaN while unknown), counters are totals since the simulation start.
+ *
+ * @author yuxin wu
+ */
+public class ControllerMetrics {
+    private final List<MetricsSink> sinks;
+    private final LatencyHistogram forecastLatency;
+
+    private double predictedCpuMips = Double.NaN;
+    private double maxHostsLoad = Double.NaN;
+    private double hostsNeeded = Double.NaN;
+    private double slaViolation = Double.NaN;
+    private double averageIdlePower = Double.NaN;
+
+    private long intervals;
+    private long warmupIntervals;
+    private long skippedIntervals;
+    private long predictionFailures;
+    private long hostsActivated;
+    private long hostsDeactivated;
+
+    public ControllerMetrics() {
+        this.sinks = new ArrayList<>();
+        this.forecastLatency = new LatencyHistogram();
+    }
+
+    public ControllerMetrics addSink(final MetricsSink sink) {
+        sinks.add(Objects.requireNonNull(sink));
+        return this;
+    }
+
+    public boolean removeSink(final MetricsSink sink) {
+        return sinks.remove(sink);
+    }
+
+    /**
+     * Sends the current metrics to every sink.
+     *
+     * @param time the simulation time of the interval
+     */
+    void publish(final double time) {
+        for (int i = 0; i < sinks.size(); i++) {
+            sinks.get(i).record(time, this);
+        }
+    }
+
+    void startInterval() {
+        intervals++;
+    }
+
+    void addWarmupInterval() {
+        warmupIntervals++;
+    }
+
+    void addSkippedInterval() {
+        skippedIntervals++;
+    }
+
+    void addPredictionFailure() {
+        predictionFailures++;
+    }
+
+    void addHostsActivated(final int hosts) {
+        hostsActivated += hosts;
+    }
+
+    void addHostsDeactivated(final int hosts) {
+        hostsDeactivated += hosts;
+    }
+
+    void setPredictedCpuMips(final double predictedCpuMips) {
+        this.predictedCpuMips = predictedCpuMips;
+    }
+
+    void setMaxHostsLoad(final double maxHostsLoad) {
+        this.maxHostsLoad = maxHostsLoad;
+    }
+
+    void setHostsNeeded(final double hostsNeeded) {
+        this.hostsNeeded = hostsNeeded;
+    }
+
+    void setSlaViolation(final double slaViolation) {
+        this.slaViolation = slaViolation;
+    }
+
+    void setAverageIdlePower(final double averageIdlePower) {
+        this.averageIdlePower = averageIdlePower;
+    }
+
+    /**
+     * Gets the all CPU usage predicted for the next interval (Gcpu), in MIPS.
+     */
+    public double getPredictedCpuMips() {
+        return predictedCpuMips;
+    }
+
+    /**
+     * Gets the predicted load of the active host with the smallest capacity (Wk),
+     * that is, the minimum number of hosts needed.
+     */
+    public double getMaxHostsLoad() {
+        return maxHostsLoad;
+    }
+
+    /**
+     * Gets the number of hosts computed by the controller (Xk), before rounding up.
+     */
+    public double getHostsNeeded() {
+        return hostsNeeded;
+    }
+
+    /**
+     * Gets the SLA violation used by the controller (PSLAk).
+     */
+    public double getSlaViolation() {
+        return slaViolation;
+    }
+
+    /**
+     * Gets the average power of an idle host (Eidle), in watts.
+     */
+    public double getAverageIdlePower() {
+        return averageIdlePower;
+    }
+
+    public long getIntervals() {
+        return intervals;
+    }
+
+    /**
+     * Gets the number of intervals skipped because there were not enough observations to predict.
+     */
+    public long getWarmupIntervals() {
+        return warmupIntervals;
+    }
+
+    /**
+     * Gets the number of intervals where re-planning was skipped because the load was stable.
+     */
+    public long getSkippedIntervals() {
+        return skippedIntervals;
+    }
+
+    /**
+     * Gets the number of intervals where the number of hosts could not be predicted.
+     */
+    public long getPredictionFailures() {
+        return predictionFailures;
+    }
+
+    public long getHostsActivated() {
+        return hostsActivated;
+    }
+
+    public long getHostsDeactivated() {
+        return hostsDeactivated;
+    }
+
+    /**
+     * Gets the histogram of the time to forecast the all CPU usage, in nanoseconds.
+     */
+    public LatencyHistogram getForecastLatency() {
+        return forecastLatency;
+    }
+}
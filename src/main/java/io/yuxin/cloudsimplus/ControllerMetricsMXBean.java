@@ -0,0 +1,33 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * The management interface of the {@link ControllerMetrics} registered by a {@link JmxMetricsSink}.
+ * Values are the ones of the last recorded interval.
+ *
+ * @author yuxin wu
+ */
+public interface ControllerMetricsMXBean {
+    double getTime();
+
+    double getPredictedCpuMips();
+
+    double getMaxHostsLoad();
+
+    double getHostsNeeded();
+
+    double getSlaViolation();
+
+    double getAverageIdlePower();
+
+    long getHostsActivated();
+
+    long getHostsDeactivated();
+
+    long getPredictionFailures();
+
+    long getForecastLatencyP50Nanos();
+
+    long getForecastLatencyP99Nanos();
+
+    long getForecastLatencyMaxNanos();
+}
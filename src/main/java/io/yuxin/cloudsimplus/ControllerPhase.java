@@ -0,0 +1,51 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * The phases of each interval of the controller inside
+ * {@link VmAllocationPolicyMigrationDynamicUsagePredictionControl}, timed by a {@link PhaseTimer}.
+ *
+ * @author yuxin wu
+ */
+public enum ControllerPhase {
+    /**
+     * Classifying the hosts as dead, idle or running.
+     */
+    UPDATE_HOST_STATES,
+
+    /**
+     * Refreshing the {@link FleetSnapshot}, which computes the all CPU usage,
+     * the smallest capacity of the active hosts and the average power of an idle host.
+     */
+    FLEET_SNAPSHOT,
+
+    /**
+     * Adding the all CPU usage to the history and the forecaster,
+     * which includes refitting the forecast model when needed.
+     */
+    ADD_CPU_OBSERVATION,
+
+    /**
+     * Forecasting the all CPU usage.
+     */
+    FORECAST,
+
+    /**
+     * Updating and fitting the series of a {@link UtilizationForecastBank}, when one is used.
+     */
+    GROUP_FORECASTS,
+
+    /**
+     * Computing the SLA violation.
+     */
+    SLA,
+
+    /**
+     * Planning the number of hosts over the forecast horizon, when a {@link RecedingHorizonOptimizer} is used.
+     */
+    OPTIMIZATION,
+
+    /**
+     * Activating and deactivating hosts and planning the VM migrations.
+     */
+    RECONFIGURATION
+}
@@ -0,0 +1,47 @@
+package io.yuxin.cloudsimplus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A {@link MetricsSink} that writes a CSV line with the metrics of each interval.
+ *
+ * @author yuxin wu
+ */
+public class CsvMetricsSink implements MetricsSink, Closeable {
+    private static final String HEADER =
+            "time,gcpu,wk,xk,pslak,eidle,hostsActivated,hostsDeactivated,predictionFailures,forecastP50Nanos,forecastP99Nanos";
+
+    private final PrintWriter writer;
+
+    /**
+     * @param writer where the lines are written to, buffered by the caller if needed
+     */
+    public CsvMetricsSink(final Writer writer) {
+        this.writer = new PrintWriter(Objects.requireNonNull(writer));
+        this.writer.println(HEADER);
+    }
+
+    @Override
+    public void record(final double time, final ControllerMetrics metrics) {
+        final LatencyHistogram latency = metrics.getForecastLatency();
+        writer.printf(Locale.US, "%.2f,%f,%f,%f,%f,%f,%d,%d,%d,%d,%d%n",
+                time, metrics.getPredictedCpuMips(), metrics.getMaxHostsLoad(), metrics.getHostsNeeded(),
+                metrics.getSlaViolation(), metrics.getAverageIdlePower(),
+                metrics.getHostsActivated(), metrics.getHostsDeactivated(), metrics.getPredictionFailures(),
+                latency.getValueAtPercentile(50), latency.getValueAtPercentile(99));
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+        if(writer.checkError()) {
+            throw new UncheckedIOException(new IOException("Error writing the metrics CSV."));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * A fixed-capacity circular buffer of primitive doubles.
+ * Adding a value takes constant time and, when the buffer is full, overwrites the oldest one.
+ *
+ * Values are indexed from the oldest (0) to the newest ({@link #size()} - 1).
+ *
+ * @author yuxin wu
+ */
+public class DoubleRingBuffer {
+    private final double[] values;
+
+    /**
+     * The position of the oldest value inside {@link #values}.
+     */
+    private int head;
+    private int size;
+
+    /**
+     * @param capacity the maximum number of values kept
+     */
+    public DoubleRingBuffer(final int capacity) {
+        if(capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be greater than zero.");
+        }
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Adds a value as the newest one, removing the oldest if the buffer is full.
+     *
+     * @param value the value to add
+     */
+    public void add(final double value) {
+        if(size < values.length) {
+            values[(head + size) % values.length] = value;
+            size++;
+            return;
+        }
+
+        values[head] = value;
+        head = (head + 1) % values.length;
+    }
+
+    /**
+     * Gets a value by its position.
+     *
+     * @param index the position of the value, where 0 is the oldest one
+     * @return the value
+     */
+    public double get(final int index) {
+        checkIndex(index, size);
+        return values[(head + index) % values.length];
+    }
+
+    /**
+     * Gets a value counting from the newest one.
+     *
+     * @param age the number of values added after the requested one (0 is the newest)
+     * @return the value
+     */
+    public double getNewest(final int age) {
+        return get(size - 1 - age);
+    }
+
+    private static void checkIndex(final int index, final int size) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == values.length;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Copies the last values into an array, oldest first.
+     *
+     * @param length the number of last values to copy
+     * @param dest the destination array
+     * @param destPos the position in the destination array of the first value copied
+     */
+    public void copyLast(final int length, final double[] dest, final int destPos) {
+        if(length < 0 || length > size) {
+            throw new IllegalArgumentException("Cannot copy " + length + " values from a buffer with " + size);
+        }
+
+        final int start = (head + size - length) % values.length;
+        final int firstPart = Math.min(length, values.length - start);
+        System.arraycopy(values, start, dest, destPos, firstPart);
+        System.arraycopy(values, 0, dest, destPos + firstPart, length - firstPart);
+    }
+
+    /**
+     * Gets a read-only view of the last values of the buffer, without copying them.
+     * The view follows the values added after it was created.
+     *
+     * @param length the maximum number of last values in the view
+     * @return the view
+     */
+    public View lastValues(final int length) {
+        return new View(length);
+    }
+
+    /**
+     * A read-only window over the last values of a {@link DoubleRingBuffer}.
+     * Values are indexed from the oldest (0) to the newest inside the window.
+     */
+    public final class View {
+        private final int length;
+
+        private View(final int length) {
+            if(length < 0) {
+                throw new IllegalArgumentException("The length of the view cannot be negative.");
+            }
+            this.length = length;
+        }
+
+        public int size() {
+            return Math.min(length, size);
+        }
+
+        public double get(final int index) {
+            final int viewSize = size();
+            checkIndex(index, viewSize);
+            return DoubleRingBuffer.this.get(size - viewSize + index);
+        }
+
+        public void copyTo(final double[] dest, final int destPos) {
+            copyLast(size(), dest, destPos);
+        }
+    }
+}
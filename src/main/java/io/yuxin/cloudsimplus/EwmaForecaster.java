@@ -0,0 +1,45 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * Forecasts a usage series by its exponentially weighted moving average.
+ * The forecast is the same for any number of steps ahead.
+ *
+ * @author yuxin wu
+ */
+public class EwmaForecaster implements UsageForecaster {
+    private final double alpha;
+    private double level;
+    private boolean initialized;
+
+    /**
+     * @param alpha the smoothing factor, between 0 and 1, where higher values give more weight to the last observations
+     */
+    public EwmaForecaster(final double alpha) {
+        if(alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("Alpha must be in the range (0, 1].");
+        }
+        this.alpha = alpha;
+    }
+
+    @Override
+    public void addObservation(final double value) {
+        if(initialized) {
+            level = alpha * value + (1 - alpha) * level;
+        } else {
+            level = value;
+            initialized = true;
+        }
+    }
+
+    @Override
+    public double forecast(final int steps) {
+        if(steps <= 0) {
+            throw new IllegalArgumentException("The number of steps must be greater than zero.");
+        }
+        return initialized ? level : Double.NaN;
+    }
+
+    public double getAlpha() {
+        return alpha;
+    }
+}
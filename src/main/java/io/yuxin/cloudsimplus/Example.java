@@ -137,6 +137,10 @@ public final class Example {
 
         System.out.printf("\nEnergy consumption: %.2f joule\n", ((DatacenterSimple)datacenter0).getPower());
 
+        if(allocationPolicy instanceof VmAllocationPolicyMigrationDynamicUsagePredictionControl) {
+            ((VmAllocationPolicyMigrationDynamicUsagePredictionControl) allocationPolicy).getPhaseTimer().print(System.out);
+        }
+
     }
 
     private void printHistory(Host host){
@@ -146,7 +150,8 @@ public final class Example {
         final List<HostStateHistoryEntry> stateHistory = host.getStateHistory();
         int times = lastClock/SCHEDULE_INTERVAL;
         for (int i = 0; i < times; i++) {
-            Double cpuUsage = utilizationHistory[times - i];
+            // the history just has the intervals recorded so far, newest first
+            Double cpuUsage = times - i < utilizationHistory.length ? utilizationHistory[times - i] : 0;
             if(cpuUsage.isInfinite()) cpuUsage = new Double(0);
             final int time = (int)stateHistory.get(i).getTime();
             boolean isActive = stateHistory.get(i).isActive();
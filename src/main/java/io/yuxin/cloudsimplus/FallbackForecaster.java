@@ -0,0 +1,383 @@
+package io.yuxin.cloudsimplus;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A chain of {@link UsageForecaster}s from the most accurate to the cheapest one,
+ * where each forecast is given by the first forecaster of the chain that succeeds,
+ * so that the time taken by each interval is bounded.
+ *
+ * The primary forecaster (like an ARIMA model) is updated and asked for its forecasts in a background thread,
+ * for at most the time budget of the interval. If it takes longer, throws an exception or gives {@link Double#NaN},
+ * the forecasts are taken from the next forecasters, which are expected to be cheap
+ * (like {@link HoltWintersForecaster} or {@link EwmaForecaster}) and run in the calling thread.
+ * Ending the chain with a {@link LastValueForecaster} makes sure there is always a forecast after the first observation.
+ *
+ * Every forecaster receives all the observations. While the primary forecaster is still busy with a late interval,
+ * the new observations are kept and handed to it together once it is done, instead of queueing a job per interval.
+ * At most {@link #getMaxBacklog()} observations are kept, like the fit window of the primary forecaster,
+ * and older ones are dropped while it is stuck.
+ *
+ * @author yuxin wu
+ */
+public class FallbackForecaster implements UsageForecaster, AutoCloseable {
+    /**
+     * Default time budget of each interval for the primary forecaster.
+     */
+    public static final long DEF_BUDGET_MILLIS = 50;
+
+    /**
+     * Default maximum number of observations kept for the primary forecaster while it is busy.
+     */
+    public static final int DEF_MAX_BACKLOG = 1024;
+
+    private final UsageForecaster primary;
+    private final UsageForecaster[] fallbacks;
+    private final long budgetNanos;
+    private final int maxSteps;
+    private final ExecutorService executor;
+
+    private Future<double[]> pending;
+
+    /**
+     * Whether the {@link #pending} job missed its budget, so that its outcome was not checked yet.
+     */
+    private boolean pendingLate;
+
+    /**
+     * Observations not handed to the primary forecaster yet, because it was busy.
+     */
+    private final DoubleRingBuffer backlog;
+
+    /**
+     * The forecasts of the primary forecaster for the last observation,
+     * where position i is i + 1 steps ahead, or null if it missed the budget or failed.
+     */
+    private double[] primaryForecasts;
+
+    /**
+     * The position in the chain of the forecaster that gave the last forecast,
+     * where 0 is the primary forecaster, or -1 if no forecaster could.
+     */
+    private int lastLevel = -1;
+
+    private long timeouts;
+    private long failures;
+    private long droppedObservations;
+    private final long[] fallbackForecasts;
+
+    /**
+     * Creates a fallback chain with the default budget.
+     *
+     * @param primary the most accurate forecaster, run in a background thread
+     * @param fallbacks the forecasters used in order when the previous ones fail
+     */
+    public FallbackForecaster(final UsageForecaster primary, final UsageForecaster... fallbacks) {
+        this(DEF_BUDGET_MILLIS, PipelinedForecaster.DEF_MAX_STEPS, primary, fallbacks);
+    }
+
+    /**
+     * Creates a fallback chain keeping at most {@link #DEF_MAX_BACKLOG} observations for the primary forecaster.
+     *
+     * @param budgetMillis the maximum time to wait for the primary forecaster at each interval
+     * @param maxSteps the maximum number of steps ahead forecast by the primary forecaster,
+     *                 longer forecasts are taken from the fallbacks
+     * @param primary the most accurate forecaster, run in a background thread
+     * @param fallbacks the forecasters used in order when the previous ones fail
+     */
+    public FallbackForecaster(
+            final long budgetMillis, final int maxSteps,
+            final UsageForecaster primary, final UsageForecaster... fallbacks)
+    {
+        this(budgetMillis, maxSteps, DEF_MAX_BACKLOG, primary, fallbacks);
+    }
+
+    /**
+     * Creates a fallback chain.
+     *
+     * @param budgetMillis the maximum time to wait for the primary forecaster at each interval
+     * @param maxSteps the maximum number of steps ahead forecast by the primary forecaster,
+     *                 longer forecasts are taken from the fallbacks
+     * @param maxBacklog the maximum number of observations kept for the primary forecaster while it is busy,
+     *                   usually the number of last observations it is fitted to
+     * @param primary the most accurate forecaster, run in a background thread
+     * @param fallbacks the forecasters used in order when the previous ones fail
+     */
+    public FallbackForecaster(
+            final long budgetMillis, final int maxSteps, final int maxBacklog,
+            final UsageForecaster primary, final UsageForecaster... fallbacks)
+    {
+        if(budgetMillis <= 0) {
+            throw new IllegalArgumentException("The time budget must be greater than zero.");
+        }
+        if(maxSteps <= 0) {
+            throw new IllegalArgumentException("The maximum number of steps must be greater than zero.");
+        }
+        if(maxBacklog <= 0) {
+            throw new IllegalArgumentException("The maximum backlog must be greater than zero.");
+        }
+
+        this.primary = Objects.requireNonNull(primary);
+        this.fallbacks = fallbacks.clone();
+        for (final UsageForecaster fallback : this.fallbacks) {
+            Objects.requireNonNull(fallback);
+        }
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.maxSteps = maxSteps;
+        this.backlog = new DoubleRingBuffer(maxBacklog);
+        this.fallbackForecasts = new long[this.fallbacks.length];
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "fallback-forecaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * The primary forecaster is given up to the time budget to update its model and forecast.
+     */
+    @Override
+    public void addObservation(final double value) {
+        for (final UsageForecaster fallback : fallbacks) {
+            fallback.addObservation(value);
+        }
+
+        addToBacklog(value);
+        primaryForecasts = null;
+        if(pending != null && !pending.isDone()) {
+            // still busy with a previous interval
+            timeouts++;
+            return;
+        }
+        checkLateJob();
+
+        final double[] observations = new double[backlog.size()];
+        backlog.copyLast(observations.length, observations, 0);
+        backlog.clear();
+        pending = executor.submit(() -> {
+            // a failed update must not keep the next observations from the model
+            RuntimeException failure = null;
+            for (final double observation : observations) {
+                try {
+                    primary.addObservation(observation);
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            if(failure != null) {
+                throw failure;
+            }
+            final double[] forecasts = new double[maxSteps];
+            primary.forecast(1, forecasts);
+            return forecasts;
+        });
+        primaryForecasts = await(pending);
+    }
+
+    private void addToBacklog(final double value) {
+        if(backlog.isFull()) {
+            // the oldest observation is overwritten
+            droppedObservations++;
+        }
+        backlog.add(value);
+    }
+
+    /**
+     * Counts the failure of a job that ended after its budget, since it was not counted when it timed out.
+     */
+    private void checkLateJob() {
+        if(!pendingLate) {
+            return;
+        }
+
+        pendingLate = false;
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            failures++;
+        }
+    }
+
+    private double[] await(final Future<double[]> job) {
+        try {
+            return job.get(budgetNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts++;
+            pendingLate = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            failures++;
+        }
+        return null;
+    }
+
+    @Override
+    public double forecast(final int steps) {
+        if(steps <= 0) {
+            throw new IllegalArgumentException("The number of steps must be greater than zero.");
+        }
+
+        if(primaryForecasts != null && steps <= maxSteps && isValid(primaryForecasts[steps - 1])) {
+            lastLevel = 0;
+            return primaryForecasts[steps - 1];
+        }
+
+        for (int i = 0; i < fallbacks.length; i++) {
+            final double value = fallbacks[i].forecast(steps);
+            if(isValid(value)) {
+                useFallback(i);
+                return value;
+            }
+        }
+
+        lastLevel = -1;
+        return Double.NaN;
+    }
+
+    @Override
+    public void forecast(final int firstStep, final double[] dest) {
+        if(firstStep <= 0) {
+            throw new IllegalArgumentException("The number of steps must be greater than zero.");
+        }
+
+        if(primaryForecasts != null && firstStep + dest.length - 1 <= maxSteps) {
+            System.arraycopy(primaryForecasts, firstStep - 1, dest, 0, dest.length);
+            if(isValid(dest)) {
+                lastLevel = 0;
+                return;
+            }
+        }
+
+        for (int i = 0; i < fallbacks.length; i++) {
+            fallbacks[i].forecast(firstStep, dest);
+            if(isValid(dest)) {
+                useFallback(i);
+                return;
+            }
+        }
+
+        lastLevel = -1;
+        Arrays.fill(dest, Double.NaN);
+    }
+
+    private void useFallback(final int index) {
+        lastLevel = index + 1;
+        fallbackForecasts[index]++;
+    }
+
+    private static boolean isValid(final double value) {
+        return !Double.isNaN(value) && !Double.isInfinite(value);
+    }
+
+    private static boolean isValid(final double[] values) {
+        for (final double value : values) {
+            if(!isValid(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Waits for the pending job of the primary forecaster, so that it can be read safely.
+     * The outcome of a late job is still checked at the next observation.
+     */
+    public void awaitPending() {
+        if(pending != null) {
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // the failure is counted when the next job is submitted or when the job is awaited
+            }
+        }
+    }
+
+    /**
+     * Stops the background thread after the pending job of the primary forecaster.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    public UsageForecaster getPrimary() {
+        return primary;
+    }
+
+    public long getBudgetMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+    }
+
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    public int getMaxBacklog() {
+        return backlog.capacity();
+    }
+
+    /**
+     * Gets the position in the chain of the forecaster that gave the last forecast,
+     * where 0 is the primary forecaster, 1 the first fallback and so on, or -1 if none could.
+     */
+    public int getLastLevel() {
+        return lastLevel;
+    }
+
+    /**
+     * Gets the number of intervals where the primary forecaster was over its time budget,
+     * including the ones where it was still busy with a previous interval.
+     */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Gets the number of jobs of the primary forecaster that threw an exception,
+     * including the ones that failed after missing their budget.
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets the number of observations the primary forecaster never received,
+     * because it was busy for longer than {@link #getMaxBacklog()} intervals.
+     */
+    public long getDroppedObservations() {
+        return droppedObservations;
+    }
+
+    /**
+     * Gets the number of forecasts given by a fallback forecaster.
+     *
+     * @param index the position of the fallback, where 0 is the first one after the primary forecaster
+     */
+    public long getFallbackForecasts(final int index) {
+        return fallbackForecasts[index];
+    }
+
+    /**
+     * Gets the number of forecasts given by any fallback forecaster.
+     */
+    public long getFallbackForecasts() {
+        long total = 0;
+        for (final long count : fallbackForecasts) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,213 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * A structure-of-arrays snapshot of the hosts of a datacenter, refreshed once per controller interval:
+ * whether each host is active, its MIPS capacity, used MIPS and idle power are kept in primitive arrays.
+ *
+ * The aggregates used by the controller are computed in the same pass that reads the hosts.
+ * Hosts are processed in fixed chunks of {@link #CHUNK_SIZE}, whose partial sums are added in chunk order,
+ * so the aggregates are the same whether the chunks are processed sequentially or in parallel.
+ * Fleets with a single chunk get the same sums as adding host by host.
+ *
+ * @author yuxin wu
+ */
+public class FleetSnapshot {
+    public static final int CHUNK_SIZE = 4096;
+
+    private int size;
+    private boolean[] active;
+    private double[] capacity;
+    private double[] usedMips;
+    private double[] idlePower;
+
+    private double[] chunkUsedMips;
+    private double[] chunkIdlePower;
+    private double[] chunkMinCapacity;
+    private int[] chunkActiveHosts;
+
+    private boolean parallel;
+
+    private double usedMipsOfActiveHosts;
+    private double minActiveCapacity;
+    private double averageIdlePower;
+    private int activeHosts;
+
+    public FleetSnapshot() {
+        allocate(0);
+    }
+
+    /**
+     * Reads the hosts and computes the aggregates.
+     * The capacity and used MIPS of inactive hosts are not read and are kept as 0.
+     *
+     * @param hostList the hosts of the datacenter
+     */
+    public void refresh(final List<? extends Host> hostList) {
+        size = hostList.size();
+        if(active.length < size) {
+            allocate(size);
+        }
+
+        final int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if(parallel && chunks > 1) {
+            IntStream.range(0, chunks).parallel().forEach(chunk -> refreshChunk(hostList, chunk));
+        } else {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                refreshChunk(hostList, chunk);
+            }
+        }
+
+        double used = 0;
+        double idle = 0;
+        double minCapacity = Double.MAX_VALUE;
+        int activeNumber = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            used += chunkUsedMips[chunk];
+            idle += chunkIdlePower[chunk];
+            if(chunkMinCapacity[chunk] < minCapacity) {
+                minCapacity = chunkMinCapacity[chunk];
+            }
+            activeNumber += chunkActiveHosts[chunk];
+        }
+
+        this.usedMipsOfActiveHosts = used;
+        this.averageIdlePower = idle / size;
+        this.minActiveCapacity = activeNumber == 0 ? Double.NaN : minCapacity;
+        this.activeHosts = activeNumber;
+    }
+
+    private void refreshChunk(final List<? extends Host> hostList, final int chunk) {
+        final int from = chunk * CHUNK_SIZE;
+        final int to = Math.min(size, from + CHUNK_SIZE);
+
+        double used = 0;
+        double idle = 0;
+        double minCapacity = Double.MAX_VALUE;
+        int activeNumber = 0;
+        for (int i = from; i < to; i++) {
+            final Host host = hostList.get(i);
+            final boolean isActive = host.isActive();
+            active[i] = isActive;
+            idlePower[i] = host.getPowerSupply().getPower(0);
+            idle += idlePower[i];
+            if(isActive) {
+                capacity[i] = host.getTotalMipsCapacity();
+                usedMips[i] = host.getUtilizationOfCpuMips();
+                used += usedMips[i];
+                if(capacity[i] < minCapacity) {
+                    minCapacity = capacity[i];
+                }
+                activeNumber++;
+            } else {
+                capacity[i] = 0;
+                usedMips[i] = 0;
+            }
+        }
+
+        chunkUsedMips[chunk] = used;
+        chunkIdlePower[chunk] = idle;
+        chunkMinCapacity[chunk] = minCapacity;
+        chunkActiveHosts[chunk] = activeNumber;
+    }
+
+    private void allocate(final int hosts) {
+        active = new boolean[hosts];
+        capacity = new double[hosts];
+        usedMips = new double[hosts];
+        idlePower = new double[hosts];
+
+        final int chunks = (hosts + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        chunkUsedMips = new double[chunks];
+        chunkIdlePower = new double[chunks];
+        chunkMinCapacity = new double[chunks];
+        chunkActiveHosts = new int[chunks];
+    }
+
+    /**
+     * Gets the number of hosts in the snapshot.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isActive(final int index) {
+        checkIndex(index);
+        return active[index];
+    }
+
+    /**
+     * Gets the MIPS capacity of a host, or 0 if it is not active.
+     */
+    public double getCapacity(final int index) {
+        checkIndex(index);
+        return capacity[index];
+    }
+
+    /**
+     * Gets the MIPS used by a host, or 0 if it is not active.
+     */
+    public double getUsedMips(final int index) {
+        checkIndex(index);
+        return usedMips[index];
+    }
+
+    /**
+     * Gets the power of a host when idle, in watts.
+     */
+    public double getIdlePower(final int index) {
+        checkIndex(index);
+        return idlePower[index];
+    }
+
+    private void checkIndex(final int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Gets the MIPS used by all active hosts (the all CPU usage).
+     */
+    public double getUsedMipsOfActiveHosts() {
+        return usedMipsOfActiveHosts;
+    }
+
+    /**
+     * Gets the smallest MIPS capacity of the active hosts, or NaN if there is no active host.
+     */
+    public double getMinActiveCapacity() {
+        return minActiveCapacity;
+    }
+
+    /**
+     * Gets the average power of the hosts when idle, in watts.
+     */
+    public double getAverageIdlePower() {
+        return averageIdlePower;
+    }
+
+    public int getActiveHosts() {
+        return activeHosts;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Enables or disables refreshing the chunks of hosts in parallel, for very large fleets.
+     * The aggregates are the same either way.
+     *
+     * @param parallel true to refresh the chunks in the common fork-join pool
+     * @return this snapshot
+     */
+    public FleetSnapshot setParallel(final boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+}
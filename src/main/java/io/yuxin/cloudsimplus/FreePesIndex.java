@@ -0,0 +1,72 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Keeps hosts ordered by their number of free PEs (the most free first) and then by id,
+ * so that the host with the most free PEs is found in logarithmic time.
+ *
+ * The index keeps its own copy of the free PEs of each host, which orders the hosts
+ * and only changes through {@link #put(Host, long)}, so the order is never corrupted
+ * by changes of the map it was filled from. It just has to be told about those changes.
+ *
+ * @author yuxin wu
+ */
+public class FreePesIndex {
+    private final Map<Host, Long> freePes;
+    private final NavigableSet<Host> hosts;
+
+    public FreePesIndex() {
+        this.freePes = new HashMap<>();
+        final Comparator<Host> byFreePes = Comparator.comparingLong(freePes::get);
+        this.hosts = new TreeSet<>(byFreePes.reversed().thenComparingInt(Host::getId));
+    }
+
+    /**
+     * Sets the number of free PEs of a host, adding the host to the index if it isn't there yet.
+     *
+     * @param host the host to set
+     * @param pes the number of free PEs
+     */
+    public void put(final Host host, final long pes) {
+        // the host must leave the tree before its key changes
+        if(freePes.containsKey(host)) {
+            hosts.remove(host);
+        }
+        freePes.put(host, pes);
+        hosts.add(host);
+    }
+
+    /**
+     * Replaces the whole index by the given free PEs of each host.
+     *
+     * @param hostFreePesMap the map of free PEs of each host
+     */
+    public void putAll(final Map<Host, Long> hostFreePesMap) {
+        hosts.clear();
+        freePes.clear();
+        hostFreePesMap.forEach(this::put);
+    }
+
+    /**
+     * Finds the host with the most free PEs (and then the lowest id) accepted by a predicate.
+     *
+     * @param predicate the predicate to accept a host
+     * @return an {@link Optional} with the host found or an empty one if no host is accepted
+     */
+    public Optional<Host> findFirst(final Predicate<Host> predicate) {
+        for (final Host host : hosts) {
+            if(predicate.test(host)) {
+                return Optional.of(host);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int size() {
+        return hosts.size();
+    }
+}
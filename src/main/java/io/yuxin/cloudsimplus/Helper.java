@@ -5,6 +5,7 @@ import org.cloudbus.cloudsim.cloudlets.CloudletSimple;
 import org.cloudbus.cloudsim.hosts.Host;
 import org.cloudbus.cloudsim.hosts.HostSimple;
 import org.cloudbus.cloudsim.hosts.HostStateHistoryEntry;
+import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G5Xeon3075;
 import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.ResourceProvisioner;
@@ -25,12 +26,27 @@ import java.util.List;
 public class Helper {
 
     public static Host createALazzySimpleHost() {
+        return createALazzySimpleHost(new ObjectHostStateHistory());
+    }
+
+    /**
+     * Creates a host keeping its state history in the given storage,
+     * such as a bounded or compacted {@link ColumnarHostStateHistory} for long simulations.
+     */
+    public static Host createALazzySimpleHost(final HostStateHistory stateHistory) {
+        return createALazzySimpleHost(stateHistory, new PowerModelSpecPowerHpProLiantMl110G5Xeon3075());
+    }
+
+    /**
+     * Creates a host with the given power model, which must not be shared with other hosts.
+     */
+    public static Host createALazzySimpleHost(final HostStateHistory stateHistory, final PowerModel powerModel) {
         List<Pe> peList = new ArrayList<>(4);
         //List of Host's CPUs (Processing Elements, PEs)
         for (int i = 0; i < 4; i++) {
             peList.add(new PeSimple(1000, new PeProvisionerSimple()));
         }
-        Host host = new SimpleHost(2048, 10000, 1000000, peList);
+        Host host = new SimpleHost(2048, 10000, 1000000, peList).setStateHistory(stateHistory);
 //        Host host = new HostSimple(2048, 10000, 1000000, peList);
         ResourceProvisioner ramProvisioner = new ResourceProvisionerSimple();
         ResourceProvisioner bwProvisioner = new ResourceProvisionerSimple();
@@ -39,7 +55,7 @@ public class Helper {
                 .setRamProvisioner(ramProvisioner)
                 .setBwProvisioner(bwProvisioner)
                 .setVmScheduler(vmScheduler);
-        host.getPowerSupply().setPowerModel(new PowerModelSpecPowerHpProLiantMl110G5Xeon3075());
+        host.getPowerSupply().setPowerModel(powerModel);
         host.enableStateHistory();
         return host;
     }
@@ -66,6 +82,14 @@ public class Helper {
         double totalHostsSlaViolationTime = 0;
 
         for (Host host : hostList) {
+            if(host instanceof SimpleHost) {
+                // SimpleHost keeps its SLA metrics updated as its state history grows
+                SlaAccumulator sla = ((SimpleHost) host).getSlaAccumulator();
+                totalHostsActiveTime += sla.getTotalActiveTime();
+                totalHostsSlaViolationTime += sla.getTotalSlaViolationTime();
+                continue;
+            }
+
             HostSlaMetrics sla = new HostSlaMetrics(host);
             totalHostsActiveTime += sla.totalActiveTime;
             totalHostsSlaViolationTime += sla.totalSlaViolationTime;
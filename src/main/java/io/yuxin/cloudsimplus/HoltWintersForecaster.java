@@ -0,0 +1,161 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * Forecasts a usage series by Holt-Winters exponential smoothing.
+ *
+ * Without a season period it is the double exponential smoothing (level and trend).
+ * With a season period it is the triple, additive, exponential smoothing,
+ * whose seasonal components are initialized from the first season of observations.
+ *
+ * @author yuxin wu
+ */
+public class HoltWintersForecaster implements UsageForecaster {
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+    private final int period;
+
+    private double level;
+    private double trend;
+    /**
+     * The seasonal component of each position in the season.
+     */
+    private final double[] seasonals;
+    private long observations;
+
+    /**
+     * Creates a double exponential smoothing forecaster.
+     *
+     * @param alpha the smoothing factor of the level
+     * @param beta the smoothing factor of the trend
+     */
+    public HoltWintersForecaster(final double alpha, final double beta) {
+        this(alpha, beta, 0, 0);
+    }
+
+    /**
+     * Creates a triple exponential smoothing forecaster.
+     *
+     * @param alpha the smoothing factor of the level
+     * @param beta the smoothing factor of the trend
+     * @param gamma the smoothing factor of the seasonal components
+     * @param period the number of observations in a season, or 0 to disable the seasonal component
+     */
+    public HoltWintersForecaster(final double alpha, final double beta, final double gamma, final int period) {
+        checkFactor("Alpha", alpha);
+        checkFactor("Beta", beta);
+        if(period < 0 || period == 1) {
+            throw new IllegalArgumentException("The season period must be 0 or greater than 1.");
+        }
+        if(period > 0) {
+            checkFactor("Gamma", gamma);
+        }
+
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.period = period;
+        this.seasonals = new double[period];
+    }
+
+    private static void checkFactor(final String name, final double factor) {
+        if(factor < 0 || factor > 1) {
+            throw new IllegalArgumentException(name + " must be in the range [0, 1].");
+        }
+    }
+
+    @Override
+    public void addObservation(final double value) {
+        if(isSeasonal()) {
+            addSeasonalObservation(value);
+        } else {
+            addTrendObservation(value);
+        }
+        observations++;
+    }
+
+    private void addTrendObservation(final double value) {
+        if(observations == 0) {
+            level = value;
+            return;
+        }
+        if(observations == 1) {
+            trend = value - level;
+            level = value;
+            return;
+        }
+
+        final double previousLevel = level;
+        level = alpha * value + (1 - alpha) * (level + trend);
+        trend = beta * (level - previousLevel) + (1 - beta) * trend;
+    }
+
+    private void addSeasonalObservation(final double value) {
+        final int position = (int) (observations % period);
+        if(observations < period) {
+            // keeps the first season to initialize the components
+            seasonals[position] = value;
+            if(observations == period - 1) {
+                initSeasonalComponents();
+            }
+            return;
+        }
+
+        final double previousLevel = level;
+        level = alpha * (value - seasonals[position]) + (1 - alpha) * (level + trend);
+        trend = beta * (level - previousLevel) + (1 - beta) * trend;
+        seasonals[position] = gamma * (value - level) + (1 - gamma) * seasonals[position];
+    }
+
+    private void initSeasonalComponents() {
+        double sum = 0;
+        for (final double value : seasonals) {
+            sum += value;
+        }
+        level = sum / period;
+        trend = 0;
+        for (int i = 0; i < period; i++) {
+            seasonals[i] -= level;
+        }
+    }
+
+    @Override
+    public double forecast(final int steps) {
+        if(steps <= 0) {
+            throw new IllegalArgumentException("The number of steps must be greater than zero.");
+        }
+        if(observations < getMinimumObservations()) {
+            return Double.NaN;
+        }
+
+        final double value = level + steps * trend;
+        if(!isSeasonal()) {
+            return value;
+        }
+        return value + seasonals[(int) ((observations - 1 + steps) % period)];
+    }
+
+    private int getMinimumObservations() {
+        return isSeasonal() ? period : 1;
+    }
+
+    public boolean isSeasonal() {
+        return period > 0;
+    }
+
+    public double getAlpha() {
+        return alpha;
+    }
+
+    public double getBeta() {
+        return beta;
+    }
+
+    public double getGamma() {
+        return gamma;
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+}
@@ -0,0 +1,111 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.vms.Vm;
+
+/**
+ * A snapshot of the resources available in a Host,
+ * used to plan VM placements without changing the Host itself.
+ *
+ * @author yuxin wu
+ */
+public class HostCapacity {
+    private final Host host;
+    private final double peCapacity;
+    private double availableMips;
+    private long availableRam;
+    private long availableBw;
+    private long availableStorage;
+    private long freePes;
+    private int placedVms;
+
+    /**
+     * Takes a snapshot of the resources currently available in a host.
+     *
+     * @param host the host to take the snapshot
+     */
+    public HostCapacity(final Host host) {
+        this.host = host;
+        this.peCapacity = host.getVmScheduler().getPeCapacity();
+        this.availableMips = host.getAvailableMips();
+        this.availableRam = host.getRam().getAvailableResource();
+        this.availableBw = host.getBw().getAvailableResource();
+        this.availableStorage = host.getAvailableStorage();
+        this.freePes = host.getNumberOfFreePes();
+    }
+
+    /**
+     * Checks if the remaining resources are enough to place a VM.
+     *
+     * @param vm the VM to check
+     * @return true if the VM fits, false otherwise
+     */
+    public boolean isSuitableForVm(final Vm vm) {
+        return host.isActive() &&
+                peCapacity >= vm.getCurrentRequestedMaxMips() &&
+                availableMips >= vm.getCurrentRequestedTotalMips() &&
+                availableRam >= vm.getCurrentRequestedRam() &&
+                availableBw >= vm.getCurrentRequestedBw() &&
+                availableStorage >= vm.getStorage().getCapacity() &&
+                freePes >= vm.getNumberOfPes();
+    }
+
+    /**
+     * Reserves the resources of a VM in the snapshot.
+     *
+     * @param vm the VM placed
+     */
+    public void allocate(final Vm vm) {
+        availableMips -= vm.getCurrentRequestedTotalMips();
+        availableRam -= vm.getCurrentRequestedRam();
+        availableBw -= vm.getCurrentRequestedBw();
+        availableStorage -= vm.getStorage().getCapacity();
+        freePes -= vm.getNumberOfPes();
+        placedVms++;
+    }
+
+    /**
+     * Releases the resources of a VM previously reserved by {@link #allocate(Vm)}.
+     *
+     * @param vm the VM removed
+     */
+    public void deallocate(final Vm vm) {
+        availableMips += vm.getCurrentRequestedTotalMips();
+        availableRam += vm.getCurrentRequestedRam();
+        availableBw += vm.getCurrentRequestedBw();
+        availableStorage += vm.getStorage().getCapacity();
+        freePes += vm.getNumberOfPes();
+        placedVms--;
+    }
+
+    public Host getHost() {
+        return host;
+    }
+
+    public double getAvailableMips() {
+        return availableMips;
+    }
+
+    public long getAvailableRam() {
+        return availableRam;
+    }
+
+    public long getAvailableBw() {
+        return availableBw;
+    }
+
+    public long getAvailableStorage() {
+        return availableStorage;
+    }
+
+    public long getFreePes() {
+        return freePes;
+    }
+
+    /**
+     * Gets the number of VMs placed in the snapshot (and not in the host yet).
+     */
+    public int getPlacedVms() {
+        return placedVms;
+    }
+}
@@ -0,0 +1,52 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.vms.Vm;
+
+/**
+ * A listener of the {@link HostEventType events} of a {@link SimpleHost}.
+ *
+ * The host checks {@link #isEnabled(HostEventType)} before computing the values of an event,
+ * and the values are given as arguments, so that a disabled type of event
+ * costs no formatting nor allocation.
+ *
+ * @author yuxin wu
+ * @see SimpleHost#setEventListener(HostEventListener)
+ */
+public interface HostEventListener {
+    /**
+     * A listener with every type of event disabled.
+     */
+    HostEventListener NULL = new HostEventListener() {
+        @Override
+        public boolean isEnabled(final HostEventType type) {
+            return false;
+        }
+
+        @Override
+        public void onEvent(final HostEventType type, final double time, final Host host, final Vm vm, final double notAllocatedMipsByPe, final boolean dueToMigration) {/**/}
+    };
+
+    /**
+     * Checks if a type of event must be reported to this listener.
+     *
+     * @param type the type of event
+     * @return true if the event is reported, false otherwise
+     */
+    boolean isEnabled(HostEventType type);
+
+    /**
+     * Notifies an event.
+     *
+     * @param type the type of event
+     * @param time the simulation time of the event
+     * @param host the host where the event happened
+     * @param vm the VM the event refers to
+     * @param notAllocatedMipsByPe the MIPS not allocated for each PE of the VM,
+     *                             for {@link HostEventType#MIPS_NOT_ALLOCATED} events, or 0
+     * @param dueToMigration for {@link HostEventType#MIPS_NOT_ALLOCATED} events,
+     *                       true if the MIPS were not allocated due to the migration overhead
+     *                       or false if due to capacity unavailability
+     */
+    void onEvent(HostEventType type, double time, Host host, Vm vm, double notAllocatedMipsByPe, boolean dueToMigration);
+}
@@ -0,0 +1,24 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * The types of events a {@link SimpleHost} reports to its {@link HostEventListener}
+ * while adding the resource usage of its VMs to their history.
+ *
+ * @author yuxin wu
+ */
+public enum HostEventType {
+    /**
+     * A VM is migrating into the host.
+     */
+    MIGRATING_IN,
+
+    /**
+     * A VM is migrating out of the host.
+     */
+    MIGRATING_OUT,
+
+    /**
+     * Part of the MIPS requested by a VM were not allocated.
+     */
+    MIPS_NOT_ALLOCATED
+}
@@ -0,0 +1,36 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+
+/**
+ * The power state of a Host as seen by the allocation policy.
+ *
+ * @author yuxin wu
+ */
+public enum HostState {
+    /**
+     * The host is powered off.
+     */
+    DEAD,
+    /**
+     * The host is active but its CPU is not used.
+     */
+    IDLE,
+    /**
+     * The host is active and its CPU is used.
+     */
+    RUNNING;
+
+    /**
+     * Gets the current state of a host.
+     *
+     * @param host the host to get the state
+     * @return the state of the host
+     */
+    public static HostState of(final Host host) {
+        if(!host.isActive()) {
+            return DEAD;
+        }
+        return host.getUtilizationOfCpu() == 0 ? IDLE : RUNNING;
+    }
+}
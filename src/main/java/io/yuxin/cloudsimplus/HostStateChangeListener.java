@@ -0,0 +1,22 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+
+/**
+ * A listener notified when the {@link HostState} of a {@link SimpleHost} changes.
+ *
+ * @author yuxin wu
+ * @see SimpleHost#addOnStateChangeListener(HostStateChangeListener)
+ */
+@FunctionalInterface
+public interface HostStateChangeListener {
+
+    /**
+     * Notifies that the state of a host changed.
+     *
+     * @param host the host whose state changed
+     * @param previous the previous state
+     * @param current the new state
+     */
+    void update(Host host, HostState previous, HostState current);
+}
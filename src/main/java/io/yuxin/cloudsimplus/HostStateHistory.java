@@ -0,0 +1,125 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.HostStateHistoryEntry;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Stores the state history of a {@link SimpleHost}: the allocated and requested MIPS
+ * and whether the host was active at each time.
+ *
+ * An entry with the same time of the last one replaces it.
+ * The history can be kept compact in two ways:
+ * <ul>
+ *     <li>merging runs: consecutive entries with the same MIPS and active state
+ *     are merged into the first and the last entry of the run, which cover its whole time range.
+ *     The SLA metrics computed from the history are the same.</li>
+ *     <li>bounding the number of entries: the oldest entries are evicted when the history is full.</li>
+ * </ul>
+ *
+ * @author yuxin wu
+ */
+public abstract class HostStateHistory {
+    /**
+     * Indicates the history has no maximum number of entries.
+     */
+    public static final int UNBOUNDED = 0;
+
+    private final int maxEntries;
+    private final boolean mergeRuns;
+
+    /**
+     * @param maxEntries the maximum number of entries kept, or {@link #UNBOUNDED}
+     * @param mergeRuns true to merge consecutive entries with the same state
+     */
+    protected HostStateHistory(final int maxEntries, final boolean mergeRuns) {
+        if(maxEntries < 0 || maxEntries == 1) {
+            throw new IllegalArgumentException("The maximum number of entries must be UNBOUNDED or greater than 1.");
+        }
+        this.maxEntries = maxEntries;
+        this.mergeRuns = mergeRuns;
+    }
+
+    /**
+     * Adds an entry to the history.
+     *
+     * @param time the time
+     * @param allocatedMips the allocated mips
+     * @param requestedMips the requested mips
+     * @param active if the host is active
+     */
+    public void add(final double time, final double allocatedMips, final double requestedMips, final boolean active) {
+        final int last = size() - 1;
+        if(last >= 0 && getTime(last) == time) {
+            set(last, time, allocatedMips, requestedMips, active);
+            return;
+        }
+
+        // the last entry of a run is moved forward, the first one keeps the start of the run
+        if(mergeRuns && last >= 1 &&
+           isSameState(last, allocatedMips, requestedMips, active) &&
+           isSameState(last - 1, allocatedMips, requestedMips, active))
+        {
+            set(last, time, allocatedMips, requestedMips, active);
+            return;
+        }
+
+        if(maxEntries != UNBOUNDED && size() == maxEntries) {
+            removeFirst();
+        }
+        append(time, allocatedMips, requestedMips, active);
+    }
+
+    private boolean isSameState(final int index, final double allocatedMips, final double requestedMips, final boolean active) {
+        return getAllocatedMips(index) == allocatedMips &&
+               getRequestedMips(index) == requestedMips &&
+               isActive(index) == active;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public abstract int size();
+
+    public abstract double getTime(int index);
+
+    public abstract double getAllocatedMips(int index);
+
+    public abstract double getRequestedMips(int index);
+
+    public abstract boolean isActive(int index);
+
+    protected abstract void append(double time, double allocatedMips, double requestedMips, boolean active);
+
+    protected abstract void set(int index, double time, double allocatedMips, double requestedMips, boolean active);
+
+    protected abstract void removeFirst();
+
+    /**
+     * Gets a read-only list view of the history, oldest entry first.
+     * Entries are created as they are read.
+     */
+    public List<HostStateHistoryEntry> asList() {
+        return new AbstractList<HostStateHistoryEntry>() {
+            @Override
+            public HostStateHistoryEntry get(final int index) {
+                return new HostStateHistoryEntry(getTime(index), getAllocatedMips(index), getRequestedMips(index), isActive(index));
+            }
+
+            @Override
+            public int size() {
+                return HostStateHistory.this.size();
+            }
+        };
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public boolean isMergeRuns() {
+        return mergeRuns;
+    }
+}
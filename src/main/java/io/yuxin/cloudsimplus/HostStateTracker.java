@@ -0,0 +1,121 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+
+import java.util.*;
+
+/**
+ * Keeps the dead, idle and running hosts of a datacenter classified.
+ *
+ * {@link SimpleHost}s notify the tracker when their state changes,
+ * so keeping the classification costs time proportional to the hosts that changed.
+ * Other kind of hosts are classified again each time {@link #update()} is called.
+ *
+ * Each set is ordered by host id, so that hosts are always picked in the same order.
+ * State changes may be notified concurrently, such as by a {@link ParallelDatacenter},
+ * since the classification is changed under the tracker lock.
+ *
+ * @author yuxin wu
+ */
+public class HostStateTracker {
+    private final NavigableSet<Host> deadHosts;
+    private final NavigableSet<Host> idleHosts;
+    private final NavigableSet<Host> runningHosts;
+
+    private final Map<Host, HostState> states;
+    private final List<Host> untrackedHosts;
+    private final HostStateChangeListener listener;
+
+    public HostStateTracker() {
+        final Comparator<Host> byId = Comparator.comparingInt(Host::getId);
+        this.deadHosts = new TreeSet<>(byId);
+        this.idleHosts = new TreeSet<>(byId);
+        this.runningHosts = new TreeSet<>(byId);
+        this.states = new HashMap<>();
+        this.untrackedHosts = new ArrayList<>();
+        this.listener = (host, previous, current) -> move(host, current);
+    }
+
+    /**
+     * Starts tracking the hosts from a list that are not tracked yet.
+     *
+     * @param hostList the hosts to track
+     */
+    public void track(final List<? extends Host> hostList) {
+        if(states.size() == hostList.size()) {
+            return;
+        }
+
+        for (final Host host : hostList) {
+            if(states.containsKey(host)) {
+                continue;
+            }
+
+            if(host instanceof SimpleHost) {
+                ((SimpleHost) host).addOnStateChangeListener(listener);
+            } else {
+                untrackedHosts.add(host);
+            }
+            move(host, HostState.of(host));
+        }
+    }
+
+    /**
+     * Classifies again the hosts which don't notify their state changes.
+     */
+    public void update() {
+        for (final Host host : untrackedHosts) {
+            move(host, HostState.of(host));
+        }
+    }
+
+    /**
+     * Powers a host on or off, keeping its classification up to date.
+     *
+     * @param host the host to change
+     * @param active true to power the host on, false to power it off
+     */
+    public void setActive(final Host host, final boolean active) {
+        host.setActive(active);
+        move(host, HostState.of(host));
+    }
+
+    private synchronized void move(final Host host, final HostState state) {
+        final HostState previous = states.put(host, state);
+        if(previous == state) {
+            return;
+        }
+
+        if(previous != null) {
+            getSet(previous).remove(host);
+        }
+        getSet(state).add(host);
+    }
+
+    private NavigableSet<Host> getSet(final HostState state) {
+        switch (state) {
+            case DEAD: return deadHosts;
+            case IDLE: return idleHosts;
+            default: return runningHosts;
+        }
+    }
+
+    public SortedSet<Host> getDeadHosts() {
+        return Collections.unmodifiableSortedSet(deadHosts);
+    }
+
+    public SortedSet<Host> getIdleHosts() {
+        return Collections.unmodifiableSortedSet(idleHosts);
+    }
+
+    public SortedSet<Host> getRunningHosts() {
+        return Collections.unmodifiableSortedSet(runningHosts);
+    }
+
+    /**
+     * Gets the number of hosts that are powered on (idle or running).
+     */
+    public int getActiveHostsNumber() {
+        return idleHosts.size() + runningHosts.size();
+    }
+}
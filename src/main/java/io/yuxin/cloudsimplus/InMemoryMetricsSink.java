@@ -0,0 +1,86 @@
+package io.yuxin.cloudsimplus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link MetricsSink} that keeps a sample of the metrics of each interval in memory.
+ *
+ * @author yuxin wu
+ */
+public class InMemoryMetricsSink implements MetricsSink {
+    private final List<Sample> samples = new ArrayList<>();
+
+    @Override
+    public void record(final double time, final ControllerMetrics metrics) {
+        samples.add(new Sample(time, metrics));
+    }
+
+    public List<Sample> getSamples() {
+        return Collections.unmodifiableList(samples);
+    }
+
+    /**
+     * The metrics of a single interval.
+     */
+    public static final class Sample {
+        private final double time;
+        private final double predictedCpuMips;
+        private final double maxHostsLoad;
+        private final double hostsNeeded;
+        private final double slaViolation;
+        private final double averageIdlePower;
+        private final long hostsActivated;
+        private final long hostsDeactivated;
+        private final long predictionFailures;
+
+        private Sample(final double time, final ControllerMetrics metrics) {
+            this.time = time;
+            this.predictedCpuMips = metrics.getPredictedCpuMips();
+            this.maxHostsLoad = metrics.getMaxHostsLoad();
+            this.hostsNeeded = metrics.getHostsNeeded();
+            this.slaViolation = metrics.getSlaViolation();
+            this.averageIdlePower = metrics.getAverageIdlePower();
+            this.hostsActivated = metrics.getHostsActivated();
+            this.hostsDeactivated = metrics.getHostsDeactivated();
+            this.predictionFailures = metrics.getPredictionFailures();
+        }
+
+        public double getTime() {
+            return time;
+        }
+
+        public double getPredictedCpuMips() {
+            return predictedCpuMips;
+        }
+
+        public double getMaxHostsLoad() {
+            return maxHostsLoad;
+        }
+
+        public double getHostsNeeded() {
+            return hostsNeeded;
+        }
+
+        public double getSlaViolation() {
+            return slaViolation;
+        }
+
+        public double getAverageIdlePower() {
+            return averageIdlePower;
+        }
+
+        public long getHostsActivated() {
+            return hostsActivated;
+        }
+
+        public long getHostsDeactivated() {
+            return hostsDeactivated;
+        }
+
+        public long getPredictionFailures() {
+            return predictionFailures;
+        }
+    }
+}
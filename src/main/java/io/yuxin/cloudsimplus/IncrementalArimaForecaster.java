@@ -0,0 +1,311 @@
+package io.yuxin.cloudsimplus;
+
+import com.github.signaflo.math.operations.DoubleFunctions;
+import com.github.signaflo.timeseries.TimeSeries;
+import com.github.signaflo.timeseries.model.arima.Arima;
+import com.github.signaflo.timeseries.model.arima.ArimaCoefficientsAccess;
+import com.github.signaflo.timeseries.model.arima.ArimaOrder;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A streaming ARIMA forecaster for a single series (like the aggregate CPU usage).
+ *
+ * Fitting an {@link Arima} model is expensive, so the model is fitted once over the last
+ * {@link #getFitWindow()} observations and its coefficients are kept.
+ * Each new observation just updates the last values and residuals of the series in constant time.
+ * The model is fitted again every {@link #getRefitInterval()} observations,
+ * or earlier when the one-step error drifts more than {@link #getDriftThreshold()}
+ * standard deviations away from the fitted model.
+ *
+ * Forecasts are computed recursively from the kept state,
+ * just for the number of steps that are requested.
+ *
+ * @author yuxin wu
+ */
+public class IncrementalArimaForecaster implements UsageForecaster {
+    public static final int DEF_REFIT_INTERVAL = 12;
+    public static final double DEF_DRIFT_THRESHOLD = 3;
+
+    private final ArimaOrder order;
+    private final int fitWindow;
+    private final int refitInterval;
+    private final double driftThreshold;
+
+    /**
+     * The last {@link #fitWindow} observations, used to refit the model.
+     */
+    private final DoubleRingBuffer window;
+    private long observations;
+
+    private boolean fitted;
+    private int observationsSinceFit;
+    private int fits;
+
+    /**
+     * The AR coefficients of the fitted model, including the differencing,
+     * such that y(t) = sum(ar[i] * y(t-i-1)) + e(t) + sum(ma[j] * e(t-j-1)).
+     */
+    private double[] ar;
+    private double[] ma;
+    private double mean;
+    private double sigma;
+
+    /**
+     * The last values and residuals of the series, oldest first.
+     */
+    private double[] lastValues;
+    private double[] lastErrors;
+
+    /**
+     * The one-step forecast for the next observation, used to compute its residual.
+     */
+    private double nextEstimate;
+
+    private double[] valuesScratch;
+    private double[] errorsScratch;
+
+    public IncrementalArimaForecaster(final ArimaOrder order, final int fitWindow) {
+        this(order, fitWindow, DEF_REFIT_INTERVAL, DEF_DRIFT_THRESHOLD);
+    }
+
+    /**
+     * Creates an incremental ARIMA forecaster.
+     *
+     * @param order the order of the ARIMA model
+     * @param fitWindow the number of last observations used to fit the model
+     * @param refitInterval the number of observations after which the model is fitted again
+     * @param driftThreshold the number of standard deviations of a one-step error
+     *                       that makes the model to be fitted before the refit interval
+     */
+    public IncrementalArimaForecaster(
+            final ArimaOrder order, final int fitWindow,
+            final int refitInterval, final double driftThreshold)
+    {
+        if(fitWindow <= 0) {
+            throw new IllegalArgumentException("The fit window must be greater than zero.");
+        }
+        if(refitInterval <= 0) {
+            throw new IllegalArgumentException("The refit interval must be greater than zero.");
+        }
+
+        this.order = Objects.requireNonNull(order);
+        this.fitWindow = fitWindow;
+        this.refitInterval = refitInterval;
+        this.driftThreshold = driftThreshold;
+        this.window = new DoubleRingBuffer(fitWindow);
+        this.valuesScratch = new double[0];
+        this.errorsScratch = new double[0];
+    }
+
+    @Override
+    public void addObservation(final double value) {
+        window.add(value);
+        observations++;
+
+        if(!fitted) {
+            if(observations >= fitWindow) {
+                fit();
+            }
+            return;
+        }
+
+        final double error = value - nextEstimate;
+        shiftIn(lastValues, value - mean);
+        shiftIn(lastErrors, error);
+        observationsSinceFit++;
+
+        final boolean drifted = sigma > 0 && Math.abs(error) > driftThreshold * sigma;
+        if(observationsSinceFit >= refitInterval || drifted) {
+            fit();
+        } else {
+            nextEstimate = forecast(1);
+        }
+    }
+
+    @Override
+    public double forecast(final int steps) {
+        if(steps <= 0) {
+            throw new IllegalArgumentException("The number of steps must be greater than zero.");
+        }
+        if(!fitted) {
+            return Double.NaN;
+        }
+
+        return forecast(steps, null, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * All the steps are computed in a single recursion.
+     */
+    @Override
+    public void forecast(final int firstStep, final double[] dest) {
+        if(firstStep <= 0) {
+            throw new IllegalArgumentException("The number of steps must be greater than zero.");
+        }
+        if(!fitted) {
+            Arrays.fill(dest, Double.NaN);
+            return;
+        }
+
+        forecast(firstStep + dest.length - 1, dest, firstStep);
+    }
+
+    /**
+     * Runs the forecast recursion up to a number of steps.
+     *
+     * @param steps the number of steps ahead to forecast
+     * @param dest the array to store the values from the first step on, or null to store none
+     * @param firstStep the first step stored in the array
+     * @return the value of the last step
+     */
+    private double forecast(final int steps, final double[] dest, final int firstStep) {
+        final int p = lastValues.length;
+        final int q = lastErrors.length;
+        if(valuesScratch.length < p + steps) {
+            valuesScratch = new double[p + steps];
+        }
+        if(errorsScratch.length < q + steps) {
+            errorsScratch = new double[q + steps];
+        }
+        System.arraycopy(lastValues, 0, valuesScratch, 0, p);
+        System.arraycopy(lastErrors, 0, errorsScratch, 0, q);
+
+        double value = 0;
+        for (int step = 0; step < steps; step++) {
+            value = 0;
+            for (int i = 0; i < p; i++) {
+                value += ar[i] * valuesScratch[p + step - i - 1];
+            }
+            for (int j = 0; j < q; j++) {
+                value += ma[j] * errorsScratch[q + step - j - 1];
+            }
+            valuesScratch[p + step] = value;
+            // future errors are expected to be zero
+            errorsScratch[q + step] = 0;
+            if(dest != null && step + 1 >= firstStep) {
+                dest[step + 1 - firstStep] = value + mean;
+            }
+        }
+
+        return value + mean;
+    }
+
+    private void fit() {
+        final double[] data = getWindowValues();
+        final Arima model = Arima.model(TimeSeries.from(DoubleFunctions.arrayFrom(data)), order);
+
+        this.ar = expandDifferences(
+                ArimaCoefficientsAccess.getExpandedAutoRegressive(model),
+                ArimaCoefficientsAccess.getDifferences(model),
+                ArimaCoefficientsAccess.getSeasonalDifferences(model),
+                model.seasonalFrequency());
+        this.ma = ArimaCoefficientsAccess.getExpandedMovingAverage(model);
+        this.mean = ArimaCoefficientsAccess.getMean(model);
+        this.sigma = Math.sqrt(model.sigma2());
+
+        this.lastValues = new double[ar.length];
+        for (int i = 0; i < lastValues.length; i++) {
+            // if the window is shorter than the model memory, the oldest value is repeated
+            final int index = Math.max(0, data.length - lastValues.length + i);
+            lastValues[i] = data[index] - mean;
+        }
+
+        final double[] errors = model.predictionErrors().asArray();
+        this.lastErrors = new double[ma.length];
+        for (int j = 0; j < lastErrors.length; j++) {
+            final int index = errors.length - lastErrors.length + j;
+            lastErrors[j] = index < 0 || Double.isNaN(errors[index]) ? 0 : errors[index];
+        }
+
+        this.fitted = true;
+        this.observationsSinceFit = 0;
+        this.fits++;
+        this.nextEstimate = forecast(1);
+    }
+
+    /**
+     * Multiplies the AR polynomial by the non-seasonal and seasonal differencing operators,
+     * so that the model can be evaluated directly over the original series.
+     *
+     * @return the AR coefficients including the differencing
+     */
+    private static double[] expandDifferences(final double[] ar, final int d, final int seasonalD, final int frequency) {
+        // polynomial in the lag operator B: 1 - sum(ar[i] * B^(i+1))
+        double[] poly = new double[ar.length + 1];
+        poly[0] = 1;
+        for (int i = 0; i < ar.length; i++) {
+            poly[i + 1] = -ar[i];
+        }
+        for (int i = 0; i < d; i++) {
+            poly = multiplyByDifference(poly, 1);
+        }
+        for (int i = 0; i < seasonalD; i++) {
+            poly = multiplyByDifference(poly, frequency);
+        }
+
+        final double[] expanded = new double[poly.length - 1];
+        for (int i = 0; i < expanded.length; i++) {
+            expanded[i] = -poly[i + 1];
+        }
+        return expanded;
+    }
+
+    /**
+     * Multiplies a polynomial in the lag operator by (1 - B^lag).
+     */
+    private static double[] multiplyByDifference(final double[] poly, final int lag) {
+        final double[] result = new double[poly.length + lag];
+        for (int i = 0; i < poly.length; i++) {
+            result[i] += poly[i];
+            result[i + lag] -= poly[i];
+        }
+        return result;
+    }
+
+    private static void shiftIn(final double[] values, final double value) {
+        if(values.length == 0) {
+            return;
+        }
+        System.arraycopy(values, 1, values, 0, values.length - 1);
+        values[values.length - 1] = value;
+    }
+
+    /**
+     * Gets the values inside the fit window, oldest first.
+     */
+    private double[] getWindowValues() {
+        final double[] values = new double[window.size()];
+        window.copyLast(values.length, values, 0);
+        return values;
+    }
+
+    public ArimaOrder getOrder() {
+        return order;
+    }
+
+    public int getFitWindow() {
+        return fitWindow;
+    }
+
+    public int getRefitInterval() {
+        return refitInterval;
+    }
+
+    public double getDriftThreshold() {
+        return driftThreshold;
+    }
+
+    /**
+     * Gets the number of times the model was fitted so far.
+     */
+    public int getFits() {
+        return fits;
+    }
+
+    public long getObservations() {
+        return observations;
+    }
+}
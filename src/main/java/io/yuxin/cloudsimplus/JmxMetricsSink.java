@@ -0,0 +1,146 @@
+package io.yuxin.cloudsimplus;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * A {@link MetricsSink} that exposes the metrics of the last interval as a {@link ControllerMetricsMXBean}
+ * in the platform MBean server, so that they can be watched with JConsole or any JMX client while the simulation runs.
+ *
+ * The values are copied when each interval is recorded, so JMX clients never read the controller state directly.
+ *
+ * @author yuxin wu
+ */
+public class JmxMetricsSink implements MetricsSink, ControllerMetricsMXBean {
+    public static final String DEF_OBJECT_NAME = "io.yuxin.cloudsimplus:type=ControllerMetrics";
+
+    private final ObjectName objectName;
+
+    private volatile double time = Double.NaN;
+    private volatile double predictedCpuMips = Double.NaN;
+    private volatile double maxHostsLoad = Double.NaN;
+    private volatile double hostsNeeded = Double.NaN;
+    private volatile double slaViolation = Double.NaN;
+    private volatile double averageIdlePower = Double.NaN;
+    private volatile long hostsActivated;
+    private volatile long hostsDeactivated;
+    private volatile long predictionFailures;
+    private volatile long forecastLatencyP50Nanos;
+    private volatile long forecastLatencyP99Nanos;
+    private volatile long forecastLatencyMaxNanos;
+
+    public JmxMetricsSink() {
+        this(DEF_OBJECT_NAME);
+    }
+
+    /**
+     * Creates the sink and registers it in the platform MBean server.
+     *
+     * @param objectName the name to register the MXBean with
+     * @throws IllegalArgumentException if the name is invalid or already registered
+     */
+    public JmxMetricsSink(final String objectName) {
+        try {
+            this.objectName = new ObjectName(objectName);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, this.objectName);
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Cannot register the metrics MXBean " + objectName, e);
+        }
+    }
+
+    /**
+     * Removes the MXBean from the platform MBean server.
+     */
+    public void unregister() {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if(server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister the metrics MXBean " + objectName, e);
+        }
+    }
+
+    @Override
+    public void record(final double time, final ControllerMetrics metrics) {
+        this.time = time;
+        this.predictedCpuMips = metrics.getPredictedCpuMips();
+        this.maxHostsLoad = metrics.getMaxHostsLoad();
+        this.hostsNeeded = metrics.getHostsNeeded();
+        this.slaViolation = metrics.getSlaViolation();
+        this.averageIdlePower = metrics.getAverageIdlePower();
+        this.hostsActivated = metrics.getHostsActivated();
+        this.hostsDeactivated = metrics.getHostsDeactivated();
+        this.predictionFailures = metrics.getPredictionFailures();
+        this.forecastLatencyP50Nanos = metrics.getForecastLatency().getValueAtPercentile(50);
+        this.forecastLatencyP99Nanos = metrics.getForecastLatency().getValueAtPercentile(99);
+        this.forecastLatencyMaxNanos = metrics.getForecastLatency().getMax();
+    }
+
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public double getTime() {
+        return time;
+    }
+
+    @Override
+    public double getPredictedCpuMips() {
+        return predictedCpuMips;
+    }
+
+    @Override
+    public double getMaxHostsLoad() {
+        return maxHostsLoad;
+    }
+
+    @Override
+    public double getHostsNeeded() {
+        return hostsNeeded;
+    }
+
+    @Override
+    public double getSlaViolation() {
+        return slaViolation;
+    }
+
+    @Override
+    public double getAverageIdlePower() {
+        return averageIdlePower;
+    }
+
+    @Override
+    public long getHostsActivated() {
+        return hostsActivated;
+    }
+
+    @Override
+    public long getHostsDeactivated() {
+        return hostsDeactivated;
+    }
+
+    @Override
+    public long getPredictionFailures() {
+        return predictionFailures;
+    }
+
+    @Override
+    public long getForecastLatencyP50Nanos() {
+        return forecastLatencyP50Nanos;
+    }
+
+    @Override
+    public long getForecastLatencyP99Nanos() {
+        return forecastLatencyP99Nanos;
+    }
+
+    @Override
+    public long getForecastLatencyMaxNanos() {
+        return forecastLatencyMaxNanos;
+    }
+}
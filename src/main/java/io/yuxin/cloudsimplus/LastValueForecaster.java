@@ -0,0 +1,24 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * Forecasts a usage series by its last observation, for any number of steps ahead.
+ * It is the cheapest forecaster and never fails once there is an observation.
+ *
+ * @author yuxin wu
+ */
+public class LastValueForecaster implements UsageForecaster {
+    private double last = Double.NaN;
+
+    @Override
+    public void addObservation(final double value) {
+        last = value;
+    }
+
+    @Override
+    public double forecast(final int steps) {
+        if(steps <= 0) {
+            throw new IllegalArgumentException("The number of steps must be greater than zero.");
+        }
+        return last;
+    }
+}
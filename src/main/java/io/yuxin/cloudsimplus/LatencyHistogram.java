@@ -0,0 +1,124 @@
+package io.yuxin.cloudsimplus;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies (or any non-negative long values) with a fixed memory footprint.
+ *
+ * Values are counted in buckets whose width grows with the magnitude of the values:
+ * each power of two is split in 8 buckets, so percentiles are reported
+ * with an error below 12.5%. Recording a value takes constant time and allocates nothing.
+ *
+ * @author yuxin wu
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts;
+    private long count;
+    private long total;
+    private long min;
+    private long max;
+
+    public LatencyHistogram() {
+        this.counts = new long[(Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS];
+        reset();
+    }
+
+    /**
+     * Records a value, negative values are recorded as 0.
+     *
+     * @param value the value to record, such as a latency in nanoseconds
+     */
+    public void record(final long value) {
+        final long v = Math.max(0, value);
+        counts[bucketOf(v)]++;
+        count++;
+        total += v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+    }
+
+    private static int bucketOf(final long value) {
+        if(value < SUB_BUCKETS) {
+            return (int)value;
+        }
+
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Gets the largest value that may be counted in a bucket.
+     */
+    private static long upperBoundOf(final int bucket) {
+        if(bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        final int shift = bucket / SUB_BUCKETS - 1;
+        final long lowerBound = (long)(SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    /**
+     * Gets the value below or equal to which the given percentage of the recorded values are.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the value at the percentile, or 0 if no value was recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if(percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+        }
+        if(count == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long)Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if(seen >= rank) {
+                return Math.max(min, Math.min(upperBoundOf(i), max));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the mean of the recorded values, or 0 if no value was recorded.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double)total / count;
+    }
+
+    /**
+     * Gets the minimum recorded value, or 0 if no value was recorded.
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+}
@@ -0,0 +1,94 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * Forecasts a usage series by a least squares line fitted to its last observations.
+ *
+ * The sums of the regression are slid together with the window,
+ * so each observation costs a constant time whatever the window size is.
+ *
+ * @author yuxin wu
+ */
+public class LinearRegressionForecaster implements UsageForecaster {
+    private final int windowSize;
+
+    /**
+     * The last observations.
+     */
+    private final DoubleRingBuffer window;
+
+    /**
+     * The sum of the observations inside the window and
+     * the sum of each observation multiplied by its position inside the window (0 is the oldest).
+     */
+    private double sumY;
+    private double sumXY;
+    private int slides;
+
+    /**
+     * @param windowSize the number of last observations the line is fitted to
+     */
+    public LinearRegressionForecaster(final int windowSize) {
+        if(windowSize < 2) {
+            throw new IllegalArgumentException("The window size must be at least 2.");
+        }
+        this.windowSize = windowSize;
+        this.window = new DoubleRingBuffer(windowSize);
+    }
+
+    @Override
+    public void addObservation(final double value) {
+        if(!window.isFull()) {
+            sumY += value;
+            sumXY += window.size() * value;
+            window.add(value);
+            return;
+        }
+
+        final double oldest = window.get(0);
+        window.add(value);
+
+        // every observation moves one position back and the new one takes the last position
+        sumXY = sumXY - (sumY - oldest) + (windowSize - 1) * value;
+        sumY = sumY - oldest + value;
+
+        // recomputes the sums from time to time to avoid accumulating rounding errors
+        if(++slides == windowSize) {
+            slides = 0;
+            recomputeSums();
+        }
+    }
+
+    private void recomputeSums() {
+        sumY = 0;
+        sumXY = 0;
+        for (int i = 0; i < window.size(); i++) {
+            final double value = window.get(i);
+            sumY += value;
+            sumXY += i * value;
+        }
+    }
+
+    @Override
+    public double forecast(final int steps) {
+        if(steps <= 0) {
+            throw new IllegalArgumentException("The number of steps must be greater than zero.");
+        }
+        if(window.isEmpty()) {
+            return Double.NaN;
+        }
+        if(window.size() == 1) {
+            return window.get(0);
+        }
+
+        final double n = window.size();
+        final double sumX = n * (n - 1) / 2;
+        final double sumXX = (n - 1) * n * (2 * n - 1) / 6;
+        final double slope = (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+        final double intercept = (sumY - slope * sumX) / n;
+        return intercept + slope * (n - 1 + steps);
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+}
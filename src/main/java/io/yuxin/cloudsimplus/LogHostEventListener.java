@@ -0,0 +1,41 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.util.Log;
+import org.cloudbus.cloudsim.vms.Vm;
+
+/**
+ * A {@link HostEventListener} that prints the events with {@link Log},
+ * enabled just while the log is enabled.
+ * It is the default listener of a {@link SimpleHost}.
+ *
+ * @author yuxin wu
+ */
+public final class LogHostEventListener implements HostEventListener {
+    public static final LogHostEventListener INSTANCE = new LogHostEventListener();
+
+    private LogHostEventListener(){/**/}
+
+    @Override
+    public boolean isEnabled(final HostEventType type) {
+        return !Log.isDisabled();
+    }
+
+    @Override
+    public void onEvent(final HostEventType type, final double time, final Host host, final Vm vm, final double notAllocatedMipsByPe, final boolean dueToMigration) {
+        switch (type) {
+            case MIGRATING_IN:
+                Log.printFormattedLine("%.2f: [%s] %s is migrating in", time, host, vm);
+                break;
+            case MIGRATING_OUT:
+                Log.printFormattedLine("%.2f: [%s] %s is migrating out ", time, host, vm);
+                break;
+            case MIPS_NOT_ALLOCATED:
+                Log.printFormattedLine(
+                        "%.2f: [%s] %.0f MIPS not allocated for each one of the %d PEs from %s due to %s.",
+                        time, host, notAllocatedMipsByPe, vm.getNumberOfPes(), vm,
+                        dueToMigration ? "migration overhead" : "capacity unavailability");
+                break;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * A destination of the {@link ControllerMetrics}, which receives them at the end of each scheduling interval.
+ *
+ * @author yuxin wu
+ * @see ControllerMetrics#addSink(MetricsSink)
+ */
+@FunctionalInterface
+public interface MetricsSink {
+
+    /**
+     * Records the metrics of an interval.
+     * The metrics object is updated by the controller afterwards, so values must be read here.
+     *
+     * @param time the simulation time of the interval
+     * @param metrics the current metrics
+     */
+    void record(double time, ControllerMetrics metrics);
+}
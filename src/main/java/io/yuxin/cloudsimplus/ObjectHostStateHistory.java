@@ -0,0 +1,78 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.HostStateHistoryEntry;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A {@link HostStateHistory} that keeps a {@link HostStateHistoryEntry} object for each entry.
+ * Entries are read just from the ends of the list, so each operation takes constant time.
+ *
+ * @author yuxin wu
+ */
+public class ObjectHostStateHistory extends HostStateHistory {
+    private final LinkedList<HostStateHistoryEntry> entries;
+
+    /**
+     * Creates an unbounded history that keeps every entry.
+     */
+    public ObjectHostStateHistory() {
+        this(UNBOUNDED, false);
+    }
+
+    /**
+     * @param maxEntries the maximum number of entries kept, or {@link #UNBOUNDED}
+     * @param mergeRuns true to merge consecutive entries with the same state
+     */
+    public ObjectHostStateHistory(final int maxEntries, final boolean mergeRuns) {
+        super(maxEntries, mergeRuns);
+        this.entries = new LinkedList<>();
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public double getTime(final int index) {
+        return entries.get(index).getTime();
+    }
+
+    @Override
+    public double getAllocatedMips(final int index) {
+        return entries.get(index).getAllocatedMips();
+    }
+
+    @Override
+    public double getRequestedMips(final int index) {
+        return entries.get(index).getRequestedMips();
+    }
+
+    @Override
+    public boolean isActive(final int index) {
+        return entries.get(index).isActive();
+    }
+
+    @Override
+    protected void append(final double time, final double allocatedMips, final double requestedMips, final boolean active) {
+        entries.add(new HostStateHistoryEntry(time, allocatedMips, requestedMips, active));
+    }
+
+    @Override
+    protected void set(final int index, final double time, final double allocatedMips, final double requestedMips, final boolean active) {
+        entries.set(index, new HostStateHistoryEntry(time, allocatedMips, requestedMips, active));
+    }
+
+    @Override
+    protected void removeFirst() {
+        entries.removeFirst();
+    }
+
+    @Override
+    public List<HostStateHistoryEntry> asList() {
+        return Collections.unmodifiableList(entries);
+    }
+}
@@ -0,0 +1,177 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.allocationpolicies.VmAllocationPolicy;
+import org.cloudbus.cloudsim.core.Simulation;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.hosts.Host;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A datacenter that can update the processing of the VMs of its hosts in parallel, for large fleets.
+ *
+ * The host list is split in contiguous partitions and a pool of worker threads updates the processing
+ * of the VMs of each {@link SimpleHost} ahead (see {@link SimpleHost#prepareUpdateProcessing(double)}).
+ * Then the update of {@link DatacenterSimple} runs as usual in the simulation thread:
+ * each host records its state history and notifies its listeners in the order of the host list,
+ * and the datacenter computes the next simulation time and its power consumption.
+ * Other kinds of hosts are updated just in the simulation thread.
+ *
+ * Each VM is updated by a single worker, but the listeners of the VMs and cloudlets
+ * that are called while their processing is updated run in the worker threads,
+ * so they must not change state shared with other hosts. If they don't,
+ * the results are the same as the ones of the sequential update.
+ *
+ * The parallel update is disabled by default and it is used just when there are at least
+ * {@link #getMinHostsPerPartition()} hosts for two partitions.
+ *
+ * @author yuxin wu
+ */
+public class ParallelDatacenter extends DatacenterSimple {
+    public static final int DEF_MIN_HOSTS_PER_PARTITION = 256;
+
+    private final int threads;
+    private ExecutorService executor;
+    private boolean parallel;
+    private int minHostsPerPartition;
+
+    /**
+     * Creates a datacenter with a worker for each available processor.
+     *
+     * @see DatacenterSimple#DatacenterSimple(Simulation, List, VmAllocationPolicy)
+     */
+    public ParallelDatacenter(final Simulation simulation, final List<? extends Host> hostList, final VmAllocationPolicy vmAllocationPolicy) {
+        this(simulation, hostList, vmAllocationPolicy, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param threads the number of worker threads of the parallel update
+     * @see DatacenterSimple#DatacenterSimple(Simulation, List, VmAllocationPolicy)
+     */
+    public ParallelDatacenter(
+            final Simulation simulation, final List<? extends Host> hostList,
+            final VmAllocationPolicy vmAllocationPolicy, final int threads)
+    {
+        super(simulation, hostList, vmAllocationPolicy);
+        if(threads <= 0) {
+            throw new IllegalArgumentException("The number of threads must be greater than zero.");
+        }
+        this.threads = threads;
+        this.minHostsPerPartition = DEF_MIN_HOSTS_PER_PARTITION;
+    }
+
+    @Override
+    protected double updateHostsProcessing() {
+        final List<Host> hostList = getHostList();
+        final int partitions = Math.min(threads, hostList.size() / minHostsPerPartition);
+        if(parallel && partitions >= 2) {
+            prepareHostsProcessing(hostList, partitions, getSimulation().clock());
+        }
+        return super.updateHostsProcessing();
+    }
+
+    /**
+     * Updates the processing of the VMs of the hosts in the worker threads,
+     * waiting for all the partitions to finish.
+     */
+    private void prepareHostsProcessing(final List<Host> hostList, final int partitions, final double currentTime) {
+        final List<Future<?>> futures = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            final int from = (int)((long)hostList.size() * i / partitions);
+            final int to = (int)((long)hostList.size() * (i + 1) / partitions);
+            futures.add(getExecutor().submit(() -> prepareHostsProcessing(hostList, from, to, currentTime)));
+        }
+
+        for (final Future<?> future : futures) {
+            await(future);
+        }
+    }
+
+    private static void prepareHostsProcessing(final List<Host> hostList, final int from, final int to, final double currentTime) {
+        for (int i = from; i < to; i++) {
+            final Host host = hostList.get(i);
+            if(host instanceof SimpleHost) {
+                ((SimpleHost) host).prepareUpdateProcessing(currentTime);
+            }
+        }
+    }
+
+    private static void await(final Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while updating the hosts processing.", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private ExecutorService getExecutor() {
+        if(executor == null) {
+            executor = Executors.newFixedThreadPool(threads, runnable -> {
+                final Thread thread = new Thread(runnable, "datacenter-" + getId() + "-worker");
+                // the workers must not keep the JVM running after the simulation ends
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Stops the worker threads, which are started again if a parallel update is needed.
+     */
+    public void shutdownWorkers() {
+        if(executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Enables or disables the parallel update of the hosts processing.
+     *
+     * @param parallel true to update the hosts in parallel, false to update them one by one
+     * @return this datacenter
+     */
+    public ParallelDatacenter setParallel(final boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getMinHostsPerPartition() {
+        return minHostsPerPartition;
+    }
+
+    /**
+     * Sets the minimum number of hosts updated by each worker,
+     * so that small fleets are not split into partitions cheaper than handing them to a thread.
+     *
+     * @param minHostsPerPartition the minimum number of hosts in each partition
+     * @return this datacenter
+     */
+    public ParallelDatacenter setMinHostsPerPartition(final int minHostsPerPartition) {
+        if(minHostsPerPartition <= 0) {
+            throw new IllegalArgumentException("The minimum number of hosts per partition must be greater than zero.");
+        }
+        this.minHostsPerPartition = minHostsPerPartition;
+        return this;
+    }
+}
@@ -0,0 +1,94 @@
+package io.yuxin.cloudsimplus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs many independent {@link SimulationScenario}s in parallel on a pool of threads.
+ *
+ * Each scenario gets its own {@link org.cloudbus.cloudsim.core.CloudSim} instance, hosts, policy and power models,
+ * created inside the thread that runs it, so simulations share no mutable state.
+ * Results are given to a consumer as each scenario finishes, always from the thread calling
+ * {@link #runAll(List, Consumer)}, so the consumer does not need to be thread-safe.
+ *
+ * The {@link org.cloudbus.cloudsim.util.Log} is global, so it should be disabled before running scenarios in parallel.
+ * Heap and GC time are process wide and are not measured.
+ *
+ * @author yuxin wu
+ */
+public class ParallelScenarioRunner implements AutoCloseable {
+    private final ExecutorService executor;
+    private final ScenarioRunner runner;
+
+    /**
+     * Creates a runner with a thread for each available processor.
+     */
+    public ParallelScenarioRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param threads the number of scenarios run at the same time
+     */
+    public ParallelScenarioRunner(final int threads) {
+        if(threads <= 0) {
+            throw new IllegalArgumentException("The number of threads must be greater than zero.");
+        }
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.runner = new ScenarioRunner(false);
+    }
+
+    /**
+     * Runs the scenarios and waits for all of them to finish.
+     *
+     * @param scenarios the scenarios to run
+     * @param onResult receives the result of each scenario as soon as it finishes
+     * @return the results in the order of the scenarios
+     * @throws IllegalStateException if a scenario fails, after cancelling the ones not finished
+     * @throws RuntimeException what the consumer throws, after cancelling the scenarios not finished
+     */
+    public List<ScenarioResult> runAll(final List<SimulationScenario> scenarios, final Consumer<ScenarioResult> onResult) {
+        Objects.requireNonNull(onResult);
+        final CompletionService<ScenarioResult> completion = new ExecutorCompletionService<>(executor);
+        final List<Future<ScenarioResult>> futures = new ArrayList<>(scenarios.size());
+        for (final SimulationScenario scenario : scenarios) {
+            futures.add(completion.submit(() -> runner.run(scenario)));
+        }
+
+        final ScenarioResult[] results = new ScenarioResult[scenarios.size()];
+        try {
+            for (int i = 0; i < scenarios.size(); i++) {
+                final Future<ScenarioResult> future = completion.take();
+                final ScenarioResult result = future.get();
+                results[futures.indexOf(future)] = result;
+                onResult.accept(result);
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("A scenario failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running the scenarios.", e);
+        } catch (RuntimeException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw e;
+        }
+
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,128 @@
+package io.yuxin.cloudsimplus;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Times the {@link ControllerPhase phases} of the controller with {@link System#nanoTime()},
+ * keeping a {@link LatencyHistogram} for each phase.
+ *
+ * Timing a phase costs two calls to {@link System#nanoTime()} and allocates nothing.
+ *
+ * @author yuxin wu
+ */
+public class PhaseTimer {
+    private static final ControllerPhase[] PHASES = ControllerPhase.values();
+
+    private final LatencyHistogram[] histograms;
+    private boolean enabled;
+
+    public PhaseTimer() {
+        this.histograms = new LatencyHistogram[PHASES.length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        this.enabled = true;
+    }
+
+    /**
+     * Gets the start time of a phase, to be given to {@link #stop(ControllerPhase, long)}.
+     *
+     * @return the current time in nanoseconds, or 0 if the timer is disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time elapsed since a phase started.
+     *
+     * @param phase the phase that finished
+     * @param start the value returned by {@link #start()} when the phase started
+     */
+    public void stop(final ControllerPhase phase, final long start) {
+        if(enabled) {
+            histograms[phase.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records the duration of a phase that was measured by the caller.
+     *
+     * @param phase the phase
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(final ControllerPhase phase, final long nanos) {
+        if(enabled) {
+            histograms[phase.ordinal()].record(nanos);
+        }
+    }
+
+    public LatencyHistogram getHistogram(final ControllerPhase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    /**
+     * Gets the time taken by all the phases, in nanoseconds.
+     */
+    public long getTotalNanos() {
+        long total = 0;
+        for (final LatencyHistogram histogram : histograms) {
+            total += histogram.getTotal();
+        }
+        return total;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public PhaseTimer setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    public void reset() {
+        for (final LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Prints a table with the count, total and percentiles of each phase, in microseconds.
+     *
+     * @param out where to print the table
+     */
+    public void print(final PrintStream out) {
+        out.printf("%n%-20s | %8s | %12s | %10s | %10s | %10s | %10s | %10s%n",
+                "Controller phase", "Count", "Total (us)", "Mean (us)", "P50 (us)", "P90 (us)", "P99 (us)", "Max (us)");
+        out.println("-----------------------------------------------------------------------------------------------------------");
+        for (final ControllerPhase phase : PHASES) {
+            final LatencyHistogram h = getHistogram(phase);
+            out.printf(Locale.US, "%-20s | %8d | %12.1f | %10.1f | %10.1f | %10.1f | %10.1f | %10.1f%n",
+                    phase, h.getCount(), h.getTotal() / 1e3, h.getMean() / 1e3,
+                    h.getValueAtPercentile(50) / 1e3, h.getValueAtPercentile(90) / 1e3,
+                    h.getValueAtPercentile(99) / 1e3, h.getMax() / 1e3);
+        }
+    }
+
+    /**
+     * Writes a CSV line with the count, total and percentiles of each phase, in nanoseconds.
+     *
+     * @param writer where to write the CSV
+     * @throws IOException if the CSV cannot be written
+     */
+    public void writeCsv(final Writer writer) throws IOException {
+        writer.write("phase,count,totalNanos,meanNanos,p50Nanos,p90Nanos,p99Nanos,maxNanos\n");
+        for (final ControllerPhase phase : PHASES) {
+            final LatencyHistogram h = getHistogram(phase);
+            writer.write(String.format(Locale.US, "%s,%d,%d,%.1f,%d,%d,%d,%d%n",
+                    phase, h.getCount(), h.getTotal(), h.getMean(),
+                    h.getValueAtPercentile(50), h.getValueAtPercentile(90),
+                    h.getValueAtPercentile(99), h.getMax()));
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,207 @@
+package io.yuxin.cloudsimplus;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs another {@link UsageForecaster} in a background thread, one interval behind the simulation,
+ * so that fitting the model does not block the simulation thread.
+ *
+ * Each observation is handed to a job that updates the wrapped forecaster
+ * and forecasts the next {@link #getMaxSteps()} + 1 steps.
+ * Forecasts requested at interval k come from the job submitted at interval k-1,
+ * shifted by one step, while the job of interval k runs in parallel with the simulation of the next interval.
+ * The wrapped forecaster then sees one observation less, which is the price of the pipeline.
+ *
+ * Jobs run one at a time and in the order of the observations, so the wrapped forecaster
+ * receives every observation even if a job is late.
+ * With no deadline, forecasts wait for their job and are the same however threads are scheduled.
+ * With a deadline, a job that is not done in time gives {@link Double#NaN},
+ * so that the controller keeps its current fleet, and the result depends on the timing of the threads.
+ * A job whose forecaster throws an exception also gives {@link Double#NaN}, and the next jobs run as usual.
+ *
+ * The wrapped forecaster must not be used directly while jobs are pending.
+ *
+ * @author yuxin wu
+ */
+public class PipelinedForecaster implements UsageForecaster, AutoCloseable {
+    /**
+     * Default number of steps ahead that can be forecast, enough for the horizon of a {@link RecedingHorizonOptimizer}.
+     */
+    public static final int DEF_MAX_STEPS = 24;
+
+    private final UsageForecaster forecaster;
+    private final int maxSteps;
+    private final long deadlineNanos;
+    private final ExecutorService executor;
+
+    /**
+     * The job submitted at the last observation, whose forecasts are used at the next one.
+     */
+    private Future<double[]> pending;
+
+    /**
+     * The forecasts of the job submitted at the previous observation,
+     * where position i is i + 1 steps ahead of that observation.
+     * It is null if there is no forecast yet the job missed its deadline or failed.
+     */
+    private double[] ready;
+
+    private long missedDeadlines;
+    private long failures;
+
+    /**
+     * Creates a pipelined forecaster that always waits for its forecasts.
+     *
+     * @param forecaster the forecaster to run in background
+     */
+    public PipelinedForecaster(final UsageForecaster forecaster) {
+        this(forecaster, DEF_MAX_STEPS, 0);
+    }
+
+    /**
+     * Creates a pipelined forecaster.
+     *
+     * @param forecaster the forecaster to run in background
+     * @param maxSteps the maximum number of steps ahead that can be forecast
+     * @param deadlineMillis the maximum time to wait for the forecasts of an interval,
+     *                       or 0 to always wait for them
+     */
+    public PipelinedForecaster(final UsageForecaster forecaster, final int maxSteps, final long deadlineMillis) {
+        if(maxSteps <= 0) {
+            throw new IllegalArgumentException("The maximum number of steps must be greater than zero.");
+        }
+        if(deadlineMillis < 0) {
+            throw new IllegalArgumentException("The deadline cannot be negative.");
+        }
+
+        this.forecaster = Objects.requireNonNull(forecaster);
+        this.maxSteps = maxSteps;
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "pipelined-forecaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * The forecasts of the previous observation are collected before submitting the job of this one.
+     */
+    @Override
+    public void addObservation(final double value) {
+        ready = pending == null ? null : await(pending);
+        pending = executor.submit(() -> {
+            forecaster.addObservation(value);
+            final double[] forecasts = new double[maxSteps + 1];
+            forecaster.forecast(1, forecasts);
+            return forecasts;
+        });
+    }
+
+    private double[] await(final Future<double[]> job) {
+        try {
+            if(deadlineNanos == 0) {
+                return job.get();
+            }
+            return job.get(deadlineNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            missedDeadlines++;
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            failures++;
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return the forecast value, or {@link Double#NaN} if there are not enough observations yet,
+     *         the forecasts of this interval missed the deadline or the forecaster failed
+     */
+    @Override
+    public double forecast(final int steps) {
+        checkSteps(steps);
+        return ready == null ? Double.NaN : ready[steps];
+    }
+
+    @Override
+    public void forecast(final int firstStep, final double[] dest) {
+        checkSteps(firstStep + dest.length - 1);
+        if(ready == null) {
+            Arrays.fill(dest, Double.NaN);
+            return;
+        }
+        System.arraycopy(ready, firstStep, dest, 0, dest.length);
+    }
+
+    private void checkSteps(final int steps) {
+        if(steps <= 0) {
+            throw new IllegalArgumentException("The number of steps must be greater than zero.");
+        }
+        if(steps > maxSteps) {
+            throw new IllegalArgumentException("Cannot forecast more than " + maxSteps + " steps ahead.");
+        }
+    }
+
+    /**
+     * Waits for the pending job, so that the wrapped forecaster can be read safely.
+     * The forecasts of the job are not used.
+     */
+    public void awaitPending() {
+        if(pending != null) {
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // the failure is counted when the forecasts of the job are collected
+            }
+        }
+    }
+
+    /**
+     * Stops the background thread after the pending job.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    public UsageForecaster getForecaster() {
+        return forecaster;
+    }
+
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    public long getDeadlineMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos);
+    }
+
+    /**
+     * Gets the number of intervals whose forecasts were not ready before the deadline.
+     */
+    public long getMissedDeadlines() {
+        return missedDeadlines;
+    }
+
+    /**
+     * Gets the number of intervals whose forecasts were not computed because the forecaster threw an exception.
+     */
+    public long getFailures() {
+        return failures;
+    }
+}
@@ -0,0 +1,322 @@
+package io.yuxin.cloudsimplus;
+
+import java.util.Arrays;
+
+/**
+ * Plans the number of active hosts over a forecast horizon and applies just the first step,
+ * as a receding-horizon (model predictive) controller.
+ *
+ * The cost of keeping x hosts active at a step with forecast load W (in hosts of the given capacity)
+ * is the one the closed-form controller minimizes for a single step:
+ * <pre>
+ *     energyCost * x + slaWeight * W / (x - W)
+ * </pre>
+ * where the energy cost is the price of the idle power of a host and the SLA weight is Nk * PSLAk * acpu.
+ * Each host booted or shut down between steps adds a switching cost,
+ * given as a number of intervals of the idle energy cost of a host.
+ *
+ * The trajectory is found by dynamic programming over a band of host counts that contains the optimum
+ * of every step and the current number of hosts. The switching cost is linear,
+ * so each step costs time proportional to the number of states in the band,
+ * which is bounded by {@link #getMaxStates()} by spacing the states when the band is wider.
+ *
+ * @author yuxin wu
+ */
+public class RecedingHorizonOptimizer {
+    public static final int DEF_HORIZON = 12;
+    public static final double DEF_BOOT_COST = 1;
+    public static final double DEF_SHUTDOWN_COST = 0.5;
+    public static final int DEF_MAX_STATES = 4096;
+
+    /**
+     * The cost for each unit of load that the hosts cannot serve,
+     * which keeps the cost finite when the forecast exceeds the capacity of the fleet.
+     */
+    private static final double UNSERVED_LOAD_COST = 1e12;
+
+    private final int horizon;
+    private double bootCost;
+    private double shutdownCost;
+    private int maxStates;
+
+    private double[] values;
+    private double[] nextValues;
+    private int[][] choices;
+    private int[] plan;
+
+    private int planLength;
+    private double lastCost;
+    private long lastSolveNanos;
+    private long lastEvaluations;
+    private long totalSolveNanos;
+    private long solves;
+
+    public RecedingHorizonOptimizer() {
+        this(DEF_HORIZON);
+    }
+
+    /**
+     * @param horizon the number of forecast steps planned
+     */
+    public RecedingHorizonOptimizer(final int horizon) {
+        if(horizon <= 0) {
+            throw new IllegalArgumentException("The horizon must be greater than zero.");
+        }
+        this.horizon = horizon;
+        this.bootCost = DEF_BOOT_COST;
+        this.shutdownCost = DEF_SHUTDOWN_COST;
+        this.maxStates = DEF_MAX_STATES;
+        this.values = new double[0];
+        this.nextValues = new double[0];
+        this.choices = new int[horizon][0];
+        this.plan = new int[horizon];
+    }
+
+    /**
+     * Plans the number of active hosts for the forecast steps.
+     *
+     * @param forecast the forecast all CPU usage (in MIPS) of each step; the horizon is shortened at the first NaN
+     * @param currentHosts the number of hosts active now
+     * @param maxHosts the number of hosts of the datacenter
+     * @param hostCapacity the MIPS capacity of a host
+     * @param energyCost the cost of keeping a host active during a step (electricity price * idle power)
+     * @param slaWeight the weight of the SLA violation (Nk * PSLAk * acpu)
+     * @return the number of hosts for the first step, or -1 if the first forecast,
+     *         the energy cost or the SLA weight is not a finite number
+     */
+    public int optimize(
+            final double[] forecast, final int currentHosts, final int maxHosts,
+            final double hostCapacity, final double energyCost, final double slaWeight)
+    {
+        final long start = System.nanoTime();
+        int steps = Math.min(horizon, forecast.length);
+        for (int t = 0; t < steps; t++) {
+            if(Double.isNaN(forecast[t])) {
+                steps = t;
+            }
+        }
+        if(steps == 0 || maxHosts <= 0 || !Double.isFinite(energyCost) || !Double.isFinite(slaWeight)) {
+            planLength = 0;
+            lastEvaluations = 0;
+            return -1;
+        }
+
+        // the band where the optimum of every step lies, together with the current number of hosts
+        int low = Math.max(0, Math.min(currentHosts, maxHosts));
+        int high = low;
+        for (int t = 0; t < steps; t++) {
+            // the integer optimum of a convex step cost is next to its real optimum
+            final double optimum = stepOptimum(forecast[t] / hostCapacity, energyCost, slaWeight, maxHosts);
+            low = Math.min(low, (int)optimum);
+            high = Math.max(high, (int)Math.min(maxHosts, optimum + 1));
+        }
+        low = Math.max(1, low);
+        high = Math.max(low, high);
+        final int stride = (high - low) / maxStates + 1;
+        final int states = (high - low) / stride + 1;
+        ensureCapacity(states);
+
+        final double up = bootCost * energyCost;
+        final double down = shutdownCost * energyCost;
+        for (int j = 0; j < states; j++) {
+            final int hosts = low + j * stride;
+            values[j] = switchingCost(currentHosts, hosts, up, down) + stageCost(hosts, forecast[0] / hostCapacity, energyCost, slaWeight);
+        }
+        for (int t = 1; t < steps; t++) {
+            transition(states, low, stride, up, down, choices[t]);
+            final double load = forecast[t] / hostCapacity;
+            for (int j = 0; j < states; j++) {
+                nextValues[j] += stageCost(low + j * stride, load, energyCost, slaWeight);
+            }
+            final double[] swap = values;
+            values = nextValues;
+            nextValues = swap;
+        }
+
+        int best = 0;
+        for (int j = 1; j < states; j++) {
+            if(values[j] < values[best]) {
+                best = j;
+            }
+        }
+        lastCost = values[best];
+        for (int t = steps - 1; t >= 0; t--) {
+            plan[t] = low + best * stride;
+            if(t > 0) {
+                best = choices[t][best];
+            }
+        }
+
+        planLength = steps;
+        lastEvaluations = (long)steps * states;
+        lastSolveNanos = System.nanoTime() - start;
+        totalSolveNanos += lastSolveNanos;
+        solves++;
+        return plan[0];
+    }
+
+    /**
+     * Computes the least cost to reach each state from any state of the previous step,
+     * in two passes that keep the best previous state below and above each state.
+     */
+    private void transition(final int states, final int low, final int stride, final double up, final double down, final int[] choice) {
+        // coming from fewer hosts: values[i] + up * (x - xi) = up * x + (values[i] - up * xi)
+        double bestBelow = Double.POSITIVE_INFINITY;
+        int bestBelowIndex = 0;
+        for (int j = 0; j < states; j++) {
+            final int hosts = low + j * stride;
+            final double candidate = values[j] - up * hosts;
+            if(candidate < bestBelow) {
+                bestBelow = candidate;
+                bestBelowIndex = j;
+            }
+            nextValues[j] = bestBelow + up * hosts;
+            choice[j] = bestBelowIndex;
+        }
+
+        // coming from more hosts: values[i] + down * (xi - x) = (values[i] + down * xi) - down * x
+        double bestAbove = Double.POSITIVE_INFINITY;
+        int bestAboveIndex = states - 1;
+        for (int j = states - 1; j >= 0; j--) {
+            final int hosts = low + j * stride;
+            final double candidate = values[j] + down * hosts;
+            if(candidate < bestAbove) {
+                bestAbove = candidate;
+                bestAboveIndex = j;
+            }
+            final double fromAbove = bestAbove - down * hosts;
+            if(fromAbove < nextValues[j]) {
+                nextValues[j] = fromAbove;
+                choice[j] = bestAboveIndex;
+            }
+        }
+    }
+
+    private static double stageCost(final int hosts, final double load, final double energyCost, final double slaWeight) {
+        if(load <= 0) {
+            return energyCost * hosts;
+        }
+        if(hosts <= load) {
+            return energyCost * hosts + UNSERVED_LOAD_COST * (load - hosts + 1);
+        }
+        return energyCost * hosts + slaWeight * load / (hosts - load);
+    }
+
+    /**
+     * Gets the real number of hosts that minimizes the cost of a single step, as the closed-form controller does.
+     */
+    private static double stepOptimum(final double load, final double energyCost, final double slaWeight, final int maxHosts) {
+        if(load <= 0) {
+            return 1;
+        }
+        final double optimum = load + Math.sqrt(slaWeight * load / energyCost);
+        return Double.isNaN(optimum) ? maxHosts : Math.min(maxHosts, optimum);
+    }
+
+    private static double switchingCost(final int from, final int to, final double up, final double down) {
+        return to > from ? up * (to - from) : down * (from - to);
+    }
+
+    private void ensureCapacity(final int states) {
+        if(values.length >= states) {
+            return;
+        }
+        values = new double[states];
+        nextValues = new double[states];
+        for (int t = 0; t < horizon; t++) {
+            choices[t] = new int[states];
+        }
+    }
+
+    public int getHorizon() {
+        return horizon;
+    }
+
+    public double getBootCost() {
+        return bootCost;
+    }
+
+    /**
+     * Sets the cost of booting a host, as a number of intervals of the idle energy cost of a host.
+     *
+     * @param bootCost the cost of booting a host
+     * @return this optimizer
+     */
+    public RecedingHorizonOptimizer setBootCost(final double bootCost) {
+        if(bootCost < 0) {
+            throw new IllegalArgumentException("The boot cost cannot be negative.");
+        }
+        this.bootCost = bootCost;
+        return this;
+    }
+
+    public double getShutdownCost() {
+        return shutdownCost;
+    }
+
+    /**
+     * Sets the cost of shutting a host down, as a number of intervals of the idle energy cost of a host.
+     *
+     * @param shutdownCost the cost of shutting a host down
+     * @return this optimizer
+     */
+    public RecedingHorizonOptimizer setShutdownCost(final double shutdownCost) {
+        if(shutdownCost < 0) {
+            throw new IllegalArgumentException("The shutdown cost cannot be negative.");
+        }
+        this.shutdownCost = shutdownCost;
+        return this;
+    }
+
+    public int getMaxStates() {
+        return maxStates;
+    }
+
+    /**
+     * Sets the maximum number of host counts evaluated at each step, which bounds the solver time.
+     * When the band of host counts is wider, the counts are evenly spaced.
+     *
+     * @param maxStates the maximum number of states by step
+     * @return this optimizer
+     */
+    public RecedingHorizonOptimizer setMaxStates(final int maxStates) {
+        if(maxStates <= 0) {
+            throw new IllegalArgumentException("The maximum number of states must be greater than zero.");
+        }
+        this.maxStates = maxStates;
+        return this;
+    }
+
+    /**
+     * Gets the number of hosts planned for each step by the last optimization.
+     */
+    public int[] getPlan() {
+        return Arrays.copyOf(plan, planLength);
+    }
+
+    /**
+     * Gets the total cost of the plan found by the last optimization.
+     */
+    public double getLastCost() {
+        return lastCost;
+    }
+
+    public long getLastSolveNanos() {
+        return lastSolveNanos;
+    }
+
+    /**
+     * Gets the number of stage costs evaluated by the last optimization (steps * states).
+     */
+    public long getLastEvaluations() {
+        return lastEvaluations;
+    }
+
+    public long getTotalSolveNanos() {
+        return totalSolveNanos;
+    }
+
+    public long getSolves() {
+        return solves;
+    }
+}
@@ -0,0 +1,77 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.util.Log;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the {@link Example} simulation for a sweep of fleet sizes, workload sizes and scheduling intervals,
+ * writing the {@link ScenarioResult} of each one as a CSV line, to track the simulator throughput across changes.
+ *
+ * <p>Usage: {@code ScaleBenchmark [results.csv] [hosts,hosts,...]}</p>
+ *
+ * Each fleet runs half as many VMs as hosts, with 5 or 20 cloudlets by VM,
+ * like the 20 hosts, 10 VMs and 50 cloudlets of the {@link Example}.
+ *
+ * @author yuxin wu
+ */
+public final class ScaleBenchmark {
+    private static final String DEF_RESULTS_FILE = "scale-results.csv";
+    private static final int[] DEF_HOSTS = {20, 100, 500, 1000, 5000};
+    private static final int[] CLOUDLETS_BY_VM = {5, 20};
+    private static final double[] SCHEDULING_INTERVALS = {10, 60};
+
+    private ScaleBenchmark(){/**/}
+
+    public static void main(String[] args) throws IOException {
+        final String resultsFile = args.length > 0 ? args[0] : DEF_RESULTS_FILE;
+        final int[] hosts = args.length > 1 ? parseInts(args[1]) : DEF_HOSTS;
+
+        Log.disable();
+        final ScenarioRunner runner = new ScenarioRunner();
+        // a first small run to load the classes, which is not reported
+        runner.run(new SimulationScenario(20, 10, 50, 10));
+
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(
+                Files.newBufferedWriter(Paths.get(resultsFile), StandardCharsets.UTF_8)))) {
+            out.println(ScenarioResult.CSV_HEADER);
+            for (final SimulationScenario scenario : createScenarios(hosts)) {
+                final ScenarioResult result = runner.run(scenario);
+                out.println(result.toCsvLine());
+                out.flush();
+                System.out.println(result);
+            }
+        }
+
+        System.out.printf("%nResults written to %s%n", resultsFile);
+    }
+
+    static List<SimulationScenario> createScenarios(final int[] hosts) {
+        final List<SimulationScenario> scenarios = new ArrayList<>();
+        for (final int h : hosts) {
+            final int vms = Math.max(1, h / 2);
+            for (final int cloudletsByVm : CLOUDLETS_BY_VM) {
+                for (final double interval : SCHEDULING_INTERVALS) {
+                    scenarios.add(new SimulationScenario(h, vms, vms * cloudletsByVm, interval));
+                }
+            }
+        }
+        return scenarios;
+    }
+
+    static int[] parseInts(final String list) {
+        final String[] values = list.split(",");
+        final int[] ints = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            ints[i] = Integer.parseInt(values[i].trim());
+        }
+        return ints;
+    }
+}
@@ -0,0 +1,100 @@
+package io.yuxin.cloudsimplus;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Aggregates the {@link ScenarioResult}s of many scenarios as they arrive,
+ * writing a CSV line for each one and keeping totals and the scenario with the least energy.
+ *
+ * @author yuxin wu
+ * @see ParallelScenarioRunner#runAll(java.util.List, Consumer)
+ */
+public class ScenarioReport implements Consumer<ScenarioResult> {
+    private final PrintWriter writer;
+
+    private int scenarios;
+    private long totalWallTimeNanos;
+    private long totalEvents;
+    private ScenarioResult leastEnergy;
+    private ScenarioResult leastSlaViolation;
+
+    /**
+     * @param writer where the CSV lines are written to
+     * @throws UncheckedIOException if the header cannot be written
+     */
+    public ScenarioReport(final Writer writer) {
+        this.writer = new PrintWriter(Objects.requireNonNull(writer));
+        this.writer.println(ScenarioResult.CSV_HEADER);
+        flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the CSV line cannot be written
+     */
+    @Override
+    public void accept(final ScenarioResult result) {
+        writer.println(result.toCsvLine());
+        flush();
+
+        scenarios++;
+        totalWallTimeNanos += result.getWallTimeNanos();
+        totalEvents += result.getEvents();
+        if(leastEnergy == null || result.getEnergy() < leastEnergy.getEnergy()) {
+            leastEnergy = result;
+        }
+        if(leastSlaViolation == null || result.getSlaViolation() < leastSlaViolation.getSlaViolation()) {
+            leastSlaViolation = result;
+        }
+    }
+
+    /**
+     * Flushes the writer, checking for an error since the {@link PrintWriter} swallows them.
+     */
+    private void flush() {
+        if(writer.checkError()) {
+            throw new UncheckedIOException(new IOException("Error writing the scenario report."));
+        }
+    }
+
+    public int getScenarios() {
+        return scenarios;
+    }
+
+    /**
+     * Gets the sum of the wall time of every scenario, which is larger than the elapsed time when run in parallel.
+     */
+    public long getTotalWallTimeNanos() {
+        return totalWallTimeNanos;
+    }
+
+    public long getTotalEvents() {
+        return totalEvents;
+    }
+
+    /**
+     * Gets the result with the least energy consumption, or null if there are no results.
+     */
+    public ScenarioResult getLeastEnergy() {
+        return leastEnergy;
+    }
+
+    /**
+     * Gets the result with the least SLA violation, or null if there are no results.
+     */
+    public ScenarioResult getLeastSlaViolation() {
+        return leastSlaViolation;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d scenarios, %d events in %.1f ms of simulation%nLeast energy: %s%nLeast SLA violation: %s",
+                scenarios, totalEvents, totalWallTimeNanos / 1e6, leastEnergy, leastSlaViolation);
+    }
+}
@@ -0,0 +1,140 @@
+package io.yuxin.cloudsimplus;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * The measurements of a {@link SimulationScenario} run by a {@link ScenarioRunner}.
+ *
+ * @author yuxin wu
+ */
+public final class ScenarioResult {
+    /**
+     * The header of the CSV lines given by {@link #toCsvLine()}.
+     */
+    public static final String CSV_HEADER =
+            "scenario,hosts,vms,cloudlets,schedulingInterval,simulationTime,wallTimeMillis,events,eventsPerSecond," +
+            "peakHeapBytes,gcTimeMillis,energyJoules,slaViolation,finishedCloudlets,controllerMillis,skippedIntervals";
+
+    private final SimulationScenario scenario;
+    private final double simulationTime;
+    private final long wallTimeNanos;
+    private final long events;
+    private final long peakHeapBytes;
+    private final long gcTimeMillis;
+    private final double energy;
+    private final double slaViolation;
+    private final int finishedCloudlets;
+    private final PhaseTimer phaseTimer;
+    private final long skippedIntervals;
+
+    ScenarioResult(
+            final SimulationScenario scenario, final double simulationTime, final long wallTimeNanos,
+            final long events, final long peakHeapBytes, final long gcTimeMillis,
+            final double energy, final double slaViolation, final int finishedCloudlets,
+            final PhaseTimer phaseTimer, final long skippedIntervals)
+    {
+        this.scenario = Objects.requireNonNull(scenario);
+        this.simulationTime = simulationTime;
+        this.wallTimeNanos = wallTimeNanos;
+        this.events = events;
+        this.peakHeapBytes = peakHeapBytes;
+        this.gcTimeMillis = gcTimeMillis;
+        this.energy = energy;
+        this.slaViolation = slaViolation;
+        this.finishedCloudlets = finishedCloudlets;
+        this.phaseTimer = Objects.requireNonNull(phaseTimer);
+        this.skippedIntervals = skippedIntervals;
+    }
+
+    public SimulationScenario getScenario() {
+        return scenario;
+    }
+
+    /**
+     * Gets the simulation clock when the simulation finished, in seconds.
+     */
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+
+    public long getWallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    /**
+     * Gets the number of simulation events processed.
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    public double getEventsPerSecond() {
+        return wallTimeNanos == 0 ? 0 : events * 1e9 / wallTimeNanos;
+    }
+
+    /**
+     * Gets the sum of the peak usage of the heap memory pools while the simulation ran,
+     * or -1 if not measured.
+     */
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    /**
+     * Gets the time the garbage collectors took while the simulation ran, or -1 if not measured.
+     */
+    public long getGcTimeMillis() {
+        return gcTimeMillis;
+    }
+
+    /**
+     * Gets the energy consumed by the datacenter, in joules.
+     */
+    public double getEnergy() {
+        return energy;
+    }
+
+    public double getSlaViolation() {
+        return slaViolation;
+    }
+
+    public int getFinishedCloudlets() {
+        return finishedCloudlets;
+    }
+
+    /**
+     * Gets the timer of the controller phases of the run, whose total is the controller CPU time.
+     */
+    public PhaseTimer getPhaseTimer() {
+        return phaseTimer;
+    }
+
+    /**
+     * Gets the number of intervals where the controller skipped re-planning because the load was stable.
+     */
+    public long getSkippedIntervals() {
+        return skippedIntervals;
+    }
+
+    public String toCsvLine() {
+        return String.format(Locale.US, "%s,%d,%d,%d,%.2f,%.2f,%.3f,%d,%.1f,%d,%d,%.2f,%.6f,%d,%.3f,%d",
+                quote(scenario.getName()), scenario.getHosts(), scenario.getVms(), scenario.getCloudlets(), scenario.getSchedulingInterval(),
+                simulationTime, wallTimeNanos / 1e6, events, getEventsPerSecond(),
+                peakHeapBytes, gcTimeMillis, energy, slaViolation, finishedCloudlets,
+                phaseTimer.getTotalNanos() / 1e6, skippedIntervals);
+    }
+
+    /**
+     * Quotes a CSV field, doubling its quotes, so that a comma or a quote in it does not break the line.
+     */
+    private static String quote(final String field) {
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.1f ms, %.0f events/s, energy %.2f joule, SLA violation %.4f",
+                scenario, wallTimeNanos / 1e6, getEventsPerSecond(), energy, slaViolation);
+    }
+}
@@ -0,0 +1,117 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.brokers.DatacenterBroker;
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.vms.Vm;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a {@link SimulationScenario} like the {@link Example} does,
+ * using the {@link VmAllocationPolicyMigrationDynamicUsagePredictionControl},
+ * and measures the simulator throughput and resource usage.
+ *
+ * The heap and GC measurements are process wide, so they are meaningful just
+ * when scenarios are run one at a time. Each run creates its own simulation, hosts and policy,
+ * so a runner that does not measure them can run scenarios in parallel.
+ *
+ * @author yuxin wu
+ */
+public class ScenarioRunner {
+    private final boolean measureMemory;
+
+    public ScenarioRunner() {
+        this(true);
+    }
+
+    /**
+     * @param measureMemory true to measure the heap and GC time of each run,
+     *                      which requires scenarios to be run one at a time
+     */
+    public ScenarioRunner(final boolean measureMemory) {
+        this.measureMemory = measureMemory;
+    }
+
+    public ScenarioResult run(final SimulationScenario scenario) {
+        final CloudSim simulation = new CloudSim();
+
+        final List<Host> hostList = new ArrayList<>(scenario.getHosts());
+        for (int i = 0; i < scenario.getHosts(); i++) {
+            hostList.add(Helper.createALazzySimpleHost(new ObjectHostStateHistory(), scenario.createPowerModel()));
+        }
+
+        final List<Vm> vmList = new ArrayList<>(scenario.getVms());
+        for (int i = 0; i < scenario.getVms(); i++) {
+            vmList.add(Helper.createALazzyVm(i));
+        }
+
+        final List<Cloudlet> cloudletList = new ArrayList<>(scenario.getCloudlets());
+        for (int i = 0; i < scenario.getCloudlets(); i++) {
+            cloudletList.add(Helper.createALazzyCloudlet(i, scenario.getCloudlets()));
+        }
+
+        final VmAllocationPolicyMigrationDynamicUsagePredictionControl policy = scenario.createPolicy();
+        final DatacenterSimple datacenter = new DatacenterSimple(simulation, hostList, policy);
+        datacenter.setSchedulingInterval(scenario.getSchedulingInterval());
+        final DatacenterBroker broker = new DatacenterBrokerSimple(simulation);
+        broker.submitVmList(vmList);
+        broker.submitCloudletList(cloudletList);
+
+        final long[] events = {0};
+        simulation.addOnEventProcessingListener(info -> events[0]++);
+
+        if(measureMemory) {
+            System.gc();
+            resetPeakHeapUsage();
+        }
+        final long gcTimeBefore = measureMemory ? getGcTimeMillis() : 0;
+        final long start = System.nanoTime();
+        final double simulationTime = simulation.start();
+        final long wallTimeNanos = System.nanoTime() - start;
+        final long gcTimeMillis = measureMemory ? getGcTimeMillis() - gcTimeBefore : -1;
+        final long peakHeapBytes = measureMemory ? getPeakHeapUsage() : -1;
+
+        return new ScenarioResult(
+                scenario, simulationTime, wallTimeNanos, events[0],
+                peakHeapBytes, gcTimeMillis, datacenter.getPower(),
+                new Helper().getSlaViolationTimePercentageForHosts(hostList),
+                broker.getCloudletFinishedList().size(),
+                policy.getPhaseTimer(), policy.getMetrics().getSkippedIntervals());
+    }
+
+    private static void resetPeakHeapUsage() {
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if(pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long getPeakHeapUsage() {
+        long peak = 0;
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if(pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static long getGcTimeMillis() {
+        long time = 0;
+        for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            // -1 when the collector does not report its time
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+}
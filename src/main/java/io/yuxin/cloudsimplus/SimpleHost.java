@@ -58,7 +58,18 @@ public class SimpleHost implements Host {
     /**
      * @see #getStateHistory()
      */
-    private final List<HostStateHistoryEntry> stateHistory;
+    private HostStateHistory stateHistory;
+
+    /**
+     * @see #getSlaAccumulator()
+     */
+    private final SlaAccumulator slaAccumulator;
+
+    /**
+     * The accumulators updated with each active interval added to the state history,
+     * including the {@link #slaAccumulator}.
+     */
+    private final List<SlaAccumulator> slaAccumulators;
     private final PowerSupply powerSupply;
 
     /**
@@ -130,6 +141,21 @@ public class SimpleHost implements Host {
      */
     private Set<EventListener<HostUpdatesVmsProcessingEventInfo>> onUpdateProcessingListeners;
 
+    /**
+     * @see #addOnStateChangeListener(HostStateChangeListener)
+     */
+    private final Set<HostStateChangeListener> onStateChangeListeners = new LinkedHashSet<>();
+
+    /**
+     * The state of the host when the state change listeners were last notified.
+     */
+    private HostState state;
+
+    /**
+     * @see #setEventListener(HostEventListener)
+     */
+    private HostEventListener eventListener = LogHostEventListener.INSTANCE;
+
     /**
      * @see #getSimulation()
      */
@@ -149,6 +175,43 @@ public class SimpleHost implements Host {
      */
     private double previousUtilizationMips;
 
+    /**
+     * The cached value of {@link #getTotalMipsCapacity()},
+     * or NaN when it must be computed again.
+     */
+    private double totalMipsCapacity = Double.NaN;
+
+    /**
+     * The cached value of {@link #getUtilizationOfCpuMips()},
+     * or NaN when it must be computed again.
+     */
+    private double utilizationOfCpuMips = Double.NaN;
+
+    /**
+     * The CPU utilization of the host (from 0 to 1) at each scheduling interval,
+     * aggregated from its VMs when the processing is updated.
+     *
+     * @see #getUtilizationHistory()
+     */
+    private final DoubleRingBuffer utilizationHistory;
+
+    /**
+     * The time the last utilization was added to the {@link #utilizationHistory}, or -1 if none.
+     */
+    private double utilizationHistoryTime = -1;
+
+    /**
+     * The {@link #utilizationHistory} newest first, or null when it must be built again.
+     */
+    private double[] utilizationHistoryArray;
+
+    /**
+     * The time the VMs processing was updated ahead by {@link #prepareUpdateProcessing(double)},
+     * or NaN if it was not.
+     */
+    private double preparedTime = Double.NaN;
+    private double preparedNextSimulationTime;
+
     /**
      * Creates a Host without a pre-defined ID.
      * The ID is automatically set when a List of Hosts is attached
@@ -182,7 +245,11 @@ public class SimpleHost implements Host {
         this.vmsMigratingIn = new HashSet<>();
         this.vmsMigratingOut = new HashSet<>();
         this.powerSupply = new SimpleHostPowerSupply(this);
-        stateHistory = new LinkedList<>();
+        stateHistory = new ObjectHostStateHistory();
+        utilizationHistory = new DoubleRingBuffer(UtilizationHistory.DEF_MAX_HISTORY_ENTRIES);
+        slaAccumulator = new SlaAccumulator();
+        slaAccumulators = new ArrayList<>();
+        slaAccumulators.add(slaAccumulator);
     }
 
     /**
@@ -210,14 +277,48 @@ public class SimpleHost implements Host {
 
     @Override
     public double getTotalMipsCapacity() {
-        return peList.stream()
-                .filter(Pe::isWorking)
-                .mapToDouble(Pe::getCapacity)
-                .sum();
+        if(Double.isNaN(totalMipsCapacity)) {
+            double capacity = 0;
+            for (final Pe pe : peList) {
+                if(pe.isWorking()) {
+                    capacity += pe.getCapacity();
+                }
+            }
+            totalMipsCapacity = capacity;
+        }
+        return totalMipsCapacity;
     }
 
     @Override
     public double updateProcessing(final double currentTime) {
+        final double nextSimulationTime =
+                preparedTime == currentTime ? preparedNextSimulationTime : updateVmsProcessing(currentTime);
+        preparedTime = Double.NaN;
+
+        addUtilizationHistory(currentTime);
+        notifyOnUpdateProcessingListeners(nextSimulationTime);
+        addStateHistory(currentTime);
+        notifyOnStateChangeListeners();
+
+        return nextSimulationTime;
+    }
+
+    /**
+     * Updates the processing of the VMs ahead of {@link #updateProcessing(double)} for the same time,
+     * which then just records the state of the host and notifies the listeners.
+     * It lets a {@link ParallelDatacenter} update the VMs of different hosts in worker threads,
+     * while the histories and listeners are updated in the simulation thread, in the order of the hosts.
+     *
+     * @param currentTime the current simulation time
+     */
+    void prepareUpdateProcessing(final double currentTime) {
+        preparedNextSimulationTime = updateVmsProcessing(currentTime);
+        preparedTime = currentTime;
+    }
+
+    private double updateVmsProcessing(final double currentTime) {
+        // the VM scheduler may have been changed directly, without passing through the host
+        invalidateUtilizationOfCpuMips();
         setPreviousUtilizationMips(getUtilizationOfCpuMips());
         double nextSimulationTime = Double.MAX_VALUE;
         /* Uses a traditional for to avoid ConcurrentModificationException,
@@ -227,10 +328,6 @@ public class SimpleHost implements Host {
             final double nextTime = vm.updateProcessing(currentTime, vmScheduler.getAllocatedMips(vm));
             nextSimulationTime = Math.min(nextTime, nextSimulationTime);
         }
-
-        notifyOnUpdateProcessingListeners(nextSimulationTime);
-        addStateHistory(currentTime);
-
         return nextSimulationTime;
     }
 
@@ -269,6 +366,8 @@ public class SimpleHost implements Host {
         }
 
         vmList.add(vm);
+        invalidateUtilizationOfCpuMips();
+        notifyOnStateChangeListeners();
         return true;
     }
 
@@ -320,6 +419,7 @@ public class SimpleHost implements Host {
         ramProvisioner.allocateResourceForVm(vm, vm.getCurrentRequestedRam());
         bwProvisioner.allocateResourceForVm(vm, vm.getCurrentRequestedBw());
         vmScheduler.allocatePesForVm(vm, vm.getCurrentRequestedMips());
+        invalidateUtilizationOfCpuMips();
 
         return true;
     }
@@ -335,6 +435,8 @@ public class SimpleHost implements Host {
             vmScheduler.allocatePesForVm(vm, vm.getCurrentRequestedMips());
             storage.allocateResource(vm.getStorage());
         }
+        invalidateUtilizationOfCpuMips();
+        notifyOnStateChangeListeners();
     }
 
     @Override
@@ -354,6 +456,7 @@ public class SimpleHost implements Host {
     @Override
     public final Host setActive(final boolean active) {
         this.active = active;
+        notifyOnStateChangeListeners();
         return this;
     }
 
@@ -373,6 +476,8 @@ public class SimpleHost implements Host {
         Objects.requireNonNull(vm);
         deallocateResourcesOfVm(vm);
         vmList.remove(vm);
+        invalidateUtilizationOfCpuMips();
+        notifyOnStateChangeListeners();
     }
 
     /**
@@ -386,6 +491,7 @@ public class SimpleHost implements Host {
         bwProvisioner.deallocateResourceForVm(vm);
         vmScheduler.deallocatePesFromVm(vm);
         storage.deallocateResource(vm.getStorage());
+        invalidateUtilizationOfCpuMips();
     }
 
     @Override
@@ -397,6 +503,8 @@ public class SimpleHost implements Host {
         }
 
         vmList.clear();
+        invalidateUtilizationOfCpuMips();
+        notifyOnStateChangeListeners();
     }
 
     /**
@@ -406,6 +514,7 @@ public class SimpleHost implements Host {
         ramProvisioner.deallocateResourceForAllVms();
         bwProvisioner.deallocateResourceForAllVms();
         vmScheduler.deallocatePesForAllVms();
+        invalidateUtilizationOfCpuMips();
     }
 
     @Override
@@ -435,6 +544,7 @@ public class SimpleHost implements Host {
     @Override
     public void deallocatePesForVm(final Vm vm) {
         vmScheduler.deallocatePesFromVm(vm);
+        invalidateUtilizationOfCpuMips();
     }
 
     @Override
@@ -530,6 +640,7 @@ public class SimpleHost implements Host {
 
         vmScheduler.setHost(this);
         this.vmScheduler = vmScheduler;
+        invalidateUtilizationOfCpuMips();
         return this;
     }
 
@@ -555,6 +666,7 @@ public class SimpleHost implements Host {
             pe.setId(++peId);
         }
 
+        invalidateTotalMipsCapacity();
         return this;
     }
 
@@ -571,11 +683,13 @@ public class SimpleHost implements Host {
     protected void addVmToList(Vm vm){
         Objects.requireNonNull(vm);
         vmList.add(vm);
+        invalidateUtilizationOfCpuMips();
     }
 
     protected void removeVmFromList(final Vm vm){
         Objects.requireNonNull(vm);
         vmList.remove(vm);
+        invalidateUtilizationOfCpuMips();
     }
 
     @Override
@@ -587,12 +701,15 @@ public class SimpleHost implements Host {
     public final boolean setFailed(final boolean failed) {
         this.failed = failed;
         PeList.setStatusFailed(peList, getId(), failed);
+        invalidateTotalMipsCapacity();
         return true;
     }
 
     @Override
     public boolean setPeStatus(final int peId, final Pe.Status status) {
-        return PeList.setPeStatus(peList, peId, status);
+        final boolean changed = PeList.setPeStatus(peList, peId, status);
+        invalidateTotalMipsCapacity();
+        return changed;
     }
 
     @Override
@@ -624,6 +741,7 @@ public class SimpleHost implements Host {
         vmsMigratingIn.remove(vm);
         vmList.remove(vm);
         vm.setInMigration(false);
+        notifyOnStateChangeListeners();
     }
 
     @Override
@@ -672,6 +790,46 @@ public class SimpleHost implements Host {
         return this;
     }
 
+    /**
+     * Adds a listener notified when the {@link HostState} of this host changes,
+     * that is, when it's powered on or off, or its CPU starts or stops being used.
+     *
+     * @param listener the listener to add
+     * @return this host
+     */
+    public SimpleHost addOnStateChangeListener(final HostStateChangeListener listener) {
+        Objects.requireNonNull(listener);
+        if(onStateChangeListeners.isEmpty()) {
+            state = HostState.of(this);
+        }
+        onStateChangeListeners.add(listener);
+        return this;
+    }
+
+    public boolean removeOnStateChangeListener(final HostStateChangeListener listener) {
+        return onStateChangeListeners.remove(listener);
+    }
+
+    /**
+     * Notifies the state change listeners if the state of the host
+     * changed since the last notification.
+     */
+    private void notifyOnStateChangeListeners() {
+        if(onStateChangeListeners.isEmpty()) {
+            return;
+        }
+
+        final HostState previous = state;
+        state = HostState.of(this);
+        if(previous == state) {
+            return;
+        }
+
+        for (final HostStateChangeListener listener : onStateChangeListeners) {
+            listener.update(this, previous, state);
+        }
+    }
+
     @Override
     public long getAvailableStorage() {
         return storage.getAvailableResource();
@@ -791,9 +949,33 @@ public class SimpleHost implements Host {
 
     @Override
     public double getUtilizationOfCpuMips() {
-        return vmList.stream()
-                .mapToDouble(vm -> vmScheduler.getTotalAllocatedMipsForVm(vm))
-                .sum();
+        if(Double.isNaN(utilizationOfCpuMips)) {
+            double mips = 0;
+            for (int i = 0; i < vmList.size(); i++) {
+                mips += vmScheduler.getTotalAllocatedMipsForVm(vmList.get(i));
+            }
+            utilizationOfCpuMips = mips;
+        }
+        return utilizationOfCpuMips;
+    }
+
+    /**
+     * Discards the cached {@link #getTotalMipsCapacity()} and {@link #getUtilizationOfCpuMips()}.
+     * The host does it by itself when its PEs, VMs or VM allocation change.
+     * It just needs to be called when a {@link Pe} or the {@link VmScheduler} are changed directly,
+     * without using the methods of this host.
+     */
+    public void invalidateCpuCache() {
+        invalidateTotalMipsCapacity();
+        invalidateUtilizationOfCpuMips();
+    }
+
+    private void invalidateTotalMipsCapacity() {
+        totalMipsCapacity = Double.NaN;
+    }
+
+    private void invalidateUtilizationOfCpuMips() {
+        utilizationOfCpuMips = Double.NaN;
     }
 
     @Override
@@ -806,21 +988,58 @@ public class SimpleHost implements Host {
         return bwProvisioner.getTotalAllocatedResource();
     }
 
+    /**
+     * Adds the current CPU utilization of the VMs to the host utilization history,
+     * once for each scheduling interval, like the VMs do.
+     *
+     * @param currentTime the current simulation time
+     */
+    private void addUtilizationHistory(final double currentTime) {
+        if(currentTime <= 0 || currentTime == utilizationHistoryTime) {
+            return;
+        }
+        if(utilizationHistoryTime >= 0 && currentTime - utilizationHistoryTime < getDatacenter().getSchedulingInterval()) {
+            return;
+        }
+
+        final double totalMipsCapacity = getTotalMipsCapacity();
+        double usedMips = 0;
+        for (int i = 0; i < vmList.size(); i++) {
+            final Vm vm = vmList.get(i);
+            usedMips += vm.getCpuPercentUsage() * vm.getTotalMipsCapacity();
+        }
+
+        utilizationHistory.add(totalMipsCapacity > 0 ? usedMips / totalMipsCapacity : 0);
+        utilizationHistoryTime = currentTime;
+        utilizationHistoryArray = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The history is kept by the host itself as the processing is updated,
+     * so its length is the number of intervals recorded (up to
+     * {@link UtilizationHistory#DEF_MAX_HISTORY_ENTRIES}), newest first.
+     *
+     * <p>The same array is returned until a new utilization is added, so it must not be changed.
+     * Use {@link #getUtilizationHistoryView()} to read the history without building the array.</p>
+     */
     @Override
     public double[] getUtilizationHistory() {
-        // better for dynamic length
-        final double[] utilizationHistory = new double[UtilizationHistory.DEF_MAX_HISTORY_ENTRIES];
-        final double totalMipsCapacity = getTotalMipsCapacity();
-        for (final Vm vm : this.getVmCreatedList()) {
-            final List<Double> history = vm.getUtilizationHistory().getHistory();
-            for (int i = 0; i < history.size(); i++) {
-                utilizationHistory[i] += history.get(i) * vm.getTotalMipsCapacity() / totalMipsCapacity;
+        if(utilizationHistoryArray == null) {
+            final double[] history = new double[utilizationHistory.size()];
+            for (int i = 0; i < history.length; i++) {
+                history[i] = utilizationHistory.getNewest(i);
             }
+            utilizationHistoryArray = history;
         }
-        //return MathUtil.trimZeroTail(utilizationHistory);
-        // for idle state
-        // check
-        return utilizationHistory;
+        return utilizationHistoryArray;
+    }
+
+    /**
+     * Gets a read-only view of the CPU utilization history of the host (from 0 to 1), oldest first.
+     */
+    public DoubleRingBuffer.View getUtilizationHistoryView() {
+        return utilizationHistory.lastValues(utilizationHistory.capacity());
     }
 
     @Override
@@ -874,32 +1093,33 @@ public class SimpleHost implements Host {
      */
     private double addVmResourceUseToHistoryIfNotMigratingIn(final Vm vm, final double currentTime) {
         double totalAllocatedMips = getVmScheduler().getTotalAllocatedMipsForVm(vm);
-        if (getVmsMigratingIn().contains(vm)) {
-            Log.printFormattedLine("%.2f: [" + this + "] " + vm
-                    + " is migrating in", getSimulation().clock());
+        if (vmsMigratingIn.contains(vm)) {
+            if(eventListener.isEnabled(HostEventType.MIGRATING_IN)) {
+                eventListener.onEvent(HostEventType.MIGRATING_IN, getSimulation().clock(), this, vm, 0, false);
+            }
             return totalAllocatedMips;
         }
 
         final double totalRequestedMips = vm.getCurrentRequestedTotalMips();
-        if (totalAllocatedMips + 0.1 < totalRequestedMips) {
-            final String reason = getVmsMigratingOut().contains(vm) ? "migration overhead" : "capacity unavailability";
+        if (totalAllocatedMips + 0.1 < totalRequestedMips && eventListener.isEnabled(HostEventType.MIPS_NOT_ALLOCATED)) {
             final double notAllocatedMipsByPe = (totalRequestedMips - totalAllocatedMips)/vm.getNumberOfPes();
-            Log.printFormattedLine(
-                    "%.2f: [%s] %.0f MIPS not allocated for each one of the %d PEs from %s due to %s.",
-                    getSimulation().clock(), this, notAllocatedMipsByPe, vm.getNumberOfPes(), vm, reason);
+            eventListener.onEvent(
+                    HostEventType.MIPS_NOT_ALLOCATED, getSimulation().clock(), this, vm,
+                    notAllocatedMipsByPe, vmsMigratingOut.contains(vm));
         }
 
+        // the VM is not migrating in, so it is in migration just if migrating out
         final VmStateHistoryEntry entry = new VmStateHistoryEntry(
                 currentTime,
                 totalAllocatedMips,
                 totalRequestedMips,
-                vm.isInMigration() && !getVmsMigratingIn().contains(vm));
+                vm.isInMigration());
         vm.addStateHistoryEntry(entry);
 
         if (vm.isInMigration()) {
-            Log.printFormattedLine(
-                    "%.2f: [" + this + "] " + vm + " is migrating out ",
-                    getSimulation().clock());
+            if(eventListener.isEnabled(HostEventType.MIGRATING_OUT)) {
+                eventListener.onEvent(HostEventType.MIGRATING_OUT, getSimulation().clock(), this, vm, 0, false);
+            }
             totalAllocatedMips /= getVmScheduler().getMaxCpuUsagePercentDuringOutMigration();
         }
 
@@ -930,22 +1150,96 @@ public class SimpleHost implements Host {
      * @param requestedMips the requested mips
      * @param isActive the is active
      */
-    private void addStateHistoryEntry(final double time, final double allocatedMips, final double requestedMips, final boolean isActive) {
-        final HostStateHistoryEntry newState = new HostStateHistoryEntry(time, allocatedMips, requestedMips, isActive);
-        if (!stateHistory.isEmpty()) {
-            final HostStateHistoryEntry previousState = stateHistory.get(stateHistory.size() - 1);
-            if (previousState.getTime() == time) {
-                stateHistory.set(stateHistory.size() - 1, newState);
-                return;
-            }
+    void addStateHistoryEntry(final double time, final double allocatedMips, final double requestedMips, final boolean isActive) {
+        final int last = stateHistory.size() - 1;
+        if (last >= 0 && stateHistory.getTime(last) != time) {
+            accumulateSla(last, time);
+        }
+
+        stateHistory.add(time, allocatedMips, requestedMips, isActive);
+    }
+
+    /**
+     * Adds the interval from the previous state to a new one to the SLA accumulators.
+     * Like the SLA computed from the whole history, the interval counts just if the host was active
+     * and violates the SLA if the allocated MIPS were less than the requested ones.
+     *
+     * @param previous the index of the last state in the history
+     * @param time the time of the new state
+     */
+    private void accumulateSla(final int previous, final double time) {
+        if(!stateHistory.isActive(previous)) {
+            return;
         }
 
-        stateHistory.add(newState);
+        final double duration = time - stateHistory.getTime(previous);
+        final boolean slaViolated = stateHistory.getAllocatedMips(previous) < stateHistory.getRequestedMips(previous);
+        for (int i = 0; i < slaAccumulators.size(); i++) {
+            slaAccumulators.get(i).addActiveInterval(time, duration, slaViolated);
+        }
+    }
+
+    /**
+     * Gets the SLA metrics accumulated from the state history since the simulation start.
+     */
+    public SlaAccumulator getSlaAccumulator() {
+        return slaAccumulator;
+    }
+
+    /**
+     * Adds an accumulator to be updated with the active intervals added to the state history from now on.
+     *
+     * @param accumulator the accumulator to add
+     * @return this host
+     */
+    public SimpleHost addSlaAccumulator(final SlaAccumulator accumulator) {
+        slaAccumulators.add(Objects.requireNonNull(accumulator));
+        return this;
+    }
+
+    public boolean removeSlaAccumulator(final SlaAccumulator accumulator) {
+        return accumulator != slaAccumulator && slaAccumulators.remove(accumulator);
     }
 
     @Override
     public List<HostStateHistoryEntry> getStateHistory() {
-        return Collections.unmodifiableList(stateHistory);
+        return stateHistory.asList();
+    }
+
+    public HostEventListener getEventListener() {
+        return eventListener;
+    }
+
+    /**
+     * Sets the listener of the events reported while adding the resource usage of VMs to their history,
+     * such as VMs migrating or MIPS not allocated.
+     * By default, events are printed with the {@link org.cloudbus.cloudsim.util.Log} while it is enabled.
+     *
+     * @param eventListener the listener, or {@link HostEventListener#NULL} to ignore the events
+     * @return this host
+     */
+    public SimpleHost setEventListener(final HostEventListener eventListener) {
+        this.eventListener = Objects.requireNonNull(eventListener);
+        return this;
+    }
+
+    /**
+     * Sets the storage of the state history, which defines whether the history is bounded
+     * or compacted. It must be set before the simulation starts, since previous entries are discarded.
+     * The SLA accumulators are not affected.
+     *
+     * @param stateHistory the empty state history to use
+     * @return this host
+     * @see ObjectHostStateHistory
+     * @see ColumnarHostStateHistory
+     */
+    public SimpleHost setStateHistory(final HostStateHistory stateHistory) {
+        Objects.requireNonNull(stateHistory);
+        if(!stateHistory.isEmpty()) {
+            throw new IllegalArgumentException("The state history to use must be empty.");
+        }
+        this.stateHistory = stateHistory;
+        return this;
     }
 
     /**
@@ -0,0 +1,108 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G5Xeon3075;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A simulation run by a {@link ScenarioRunner}:
+ * the hosts, VMs and cloudlets created with the {@link Helper} factories,
+ * the scheduling interval of the datacenter, the allocation policy and the power model of the hosts.
+ *
+ * The policy and power models are given as factories, so that each run gets its own instances
+ * and scenarios can run in parallel.
+ *
+ * @author yuxin wu
+ */
+public final class SimulationScenario {
+    private final String name;
+    private final Supplier<VmAllocationPolicyMigrationDynamicUsagePredictionControl> policyFactory;
+    private final Supplier<PowerModel> powerModelFactory;
+    private final int hosts;
+    private final int vms;
+    private final int cloudlets;
+    private final double schedulingInterval;
+
+    /**
+     * @param hosts the number of hosts
+     * @param vms the number of VMs
+     * @param cloudlets the number of cloudlets
+     * @param schedulingInterval the scheduling interval of the datacenter, in seconds
+     */
+    public SimulationScenario(final int hosts, final int vms, final int cloudlets, final double schedulingInterval) {
+        this(String.format("%dh-%dvm-%dc-%.0fs", hosts, vms, cloudlets, schedulingInterval),
+             hosts, vms, cloudlets, schedulingInterval,
+             VmAllocationPolicyMigrationDynamicUsagePredictionControl::new,
+             PowerModelSpecPowerHpProLiantMl110G5Xeon3075::new);
+    }
+
+    /**
+     * @param name the name of the scenario in the results
+     * @param hosts the number of hosts
+     * @param vms the number of VMs
+     * @param cloudlets the number of cloudlets
+     * @param schedulingInterval the scheduling interval of the datacenter, in seconds
+     * @param policyFactory creates the allocation policy of each run
+     * @param powerModelFactory creates the power model of each host
+     */
+    public SimulationScenario(
+            final String name, final int hosts, final int vms, final int cloudlets, final double schedulingInterval,
+            final Supplier<VmAllocationPolicyMigrationDynamicUsagePredictionControl> policyFactory,
+            final Supplier<PowerModel> powerModelFactory)
+    {
+        if(hosts <= 0 || vms <= 0 || cloudlets <= 0) {
+            throw new IllegalArgumentException("The number of hosts, VMs and cloudlets must be greater than zero.");
+        }
+        if(schedulingInterval <= 0) {
+            throw new IllegalArgumentException("The scheduling interval must be greater than zero.");
+        }
+        this.name = Objects.requireNonNull(name);
+        this.policyFactory = Objects.requireNonNull(policyFactory);
+        this.powerModelFactory = Objects.requireNonNull(powerModelFactory);
+        this.hosts = hosts;
+        this.vms = vms;
+        this.cloudlets = cloudlets;
+        this.schedulingInterval = schedulingInterval;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Creates a new allocation policy for a run of the scenario.
+     */
+    public VmAllocationPolicyMigrationDynamicUsagePredictionControl createPolicy() {
+        return policyFactory.get();
+    }
+
+    /**
+     * Creates a new power model for a host of the scenario.
+     */
+    public PowerModel createPowerModel() {
+        return powerModelFactory.get();
+    }
+
+    public int getHosts() {
+        return hosts;
+    }
+
+    public int getVms() {
+        return vms;
+    }
+
+    public int getCloudlets() {
+        return cloudlets;
+    }
+
+    public double getSchedulingInterval() {
+        return schedulingInterval;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d hosts, %d VMs, %d cloudlets, %.0fs interval)", name, hosts, vms, cloudlets, schedulingInterval);
+    }
+}
@@ -0,0 +1,46 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * Accumulates the time a host was active and the time it violated the SLA,
+ * that is, the time its allocated MIPS were less than the requested ones.
+ *
+ * It computes the same metrics as walking the whole host state history,
+ * but it's updated as each new history entry is added.
+ *
+ * @author yuxin wu
+ */
+public class SlaAccumulator {
+    private double totalActiveTime;
+    private double totalSlaViolationTime;
+
+    /**
+     * Adds an interval in which the host was active.
+     *
+     * @param endTime the simulation time the interval ends
+     * @param duration the duration of the interval
+     * @param slaViolated true if the SLA was violated during the interval
+     */
+    public void addActiveInterval(final double endTime, final double duration, final boolean slaViolated) {
+        totalActiveTime += duration;
+        if(slaViolated) {
+            totalSlaViolationTime += duration;
+        }
+    }
+
+    public double getTotalActiveTime() {
+        return totalActiveTime;
+    }
+
+    public double getTotalSlaViolationTime() {
+        return totalSlaViolationTime;
+    }
+
+    /**
+     * Gets the fraction of the active time in which the SLA was violated.
+     *
+     * @return the SLA violation time percentage, or NaN if there is no active time
+     */
+    public double getSlaViolationTimePercentage() {
+        return totalSlaViolationTime / totalActiveTime;
+    }
+}
@@ -0,0 +1,131 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * Accumulates the active time and the SLA violation time of a host
+ * just inside a sliding window with the last {@link #getHorizon()} seconds.
+ *
+ * The window is divided into a fixed number of buckets, which expire as the time advances.
+ * Adding an interval and reading the metrics cost a time proportional to the number of buckets,
+ * whatever the simulation time is.
+ *
+ * @author yuxin wu
+ */
+public class SlidingSlaAccumulator extends SlaAccumulator {
+    public static final int DEF_BUCKETS = 10;
+
+    private final double horizon;
+    private final double bucketWidth;
+    private final double[] activeTime;
+    private final double[] slaViolationTime;
+
+    /**
+     * The number of the newest bucket, where bucket n covers the time interval (n*width, (n+1)*width].
+     */
+    private long lastBucket;
+
+    public SlidingSlaAccumulator(final double horizon) {
+        this(horizon, DEF_BUCKETS);
+    }
+
+    /**
+     * @param horizon the length of the window, in seconds
+     * @param buckets the number of buckets the window is divided into
+     */
+    public SlidingSlaAccumulator(final double horizon, final int buckets) {
+        if(horizon <= 0) {
+            throw new IllegalArgumentException("The horizon must be greater than zero.");
+        }
+        if(buckets <= 0) {
+            throw new IllegalArgumentException("The number of buckets must be greater than zero.");
+        }
+
+        this.horizon = horizon;
+        this.bucketWidth = horizon / buckets;
+        this.activeTime = new double[buckets];
+        this.slaViolationTime = new double[buckets];
+    }
+
+    @Override
+    public void addActiveInterval(final double endTime, final double duration, final boolean slaViolated) {
+        advanceTo(endTime);
+
+        // splits the interval among the buckets it overlaps, dropping the parts which already expired
+        final double startTime = endTime - duration;
+        final long firstBucket = Math.max(bucketOf(startTime), lastBucket - activeTime.length + 1);
+        for (long bucket = firstBucket; bucket <= lastBucket; bucket++) {
+            final double portion =
+                    Math.min(endTime, (bucket + 1) * bucketWidth) - Math.max(startTime, bucket * bucketWidth);
+            if(portion <= 0) {
+                continue;
+            }
+
+            final int index = indexOf(bucket);
+            activeTime[index] += portion;
+            if(slaViolated) {
+                slaViolationTime[index] += portion;
+            }
+        }
+    }
+
+    /**
+     * Slides the window up to a given time, expiring the buckets which are out of it.
+     *
+     * @param time the current simulation time
+     */
+    public void advanceTo(final double time) {
+        final long bucket = bucketOf(time);
+        if(bucket <= lastBucket) {
+            return;
+        }
+
+        // the new buckets reuse the positions of the expired ones
+        final long firstNewBucket = Math.max(lastBucket + 1, bucket - activeTime.length + 1);
+        for (long newBucket = firstNewBucket; newBucket <= bucket; newBucket++) {
+            final int index = indexOf(newBucket);
+            activeTime[index] = 0;
+            slaViolationTime[index] = 0;
+        }
+        lastBucket = bucket;
+    }
+
+    private long bucketOf(final double time) {
+        return Math.max(0, (long) Math.ceil(time / bucketWidth) - 1);
+    }
+
+    private int indexOf(final long bucket) {
+        return (int) (bucket % activeTime.length);
+    }
+
+    /**
+     * Gets the active time inside the window.
+     */
+    @Override
+    public double getTotalActiveTime() {
+        return sum(activeTime);
+    }
+
+    /**
+     * Gets the SLA violation time inside the window.
+     */
+    @Override
+    public double getTotalSlaViolationTime() {
+        return sum(slaViolationTime);
+    }
+
+    @Override
+    public double getSlaViolationTimePercentage() {
+        return getTotalSlaViolationTime() / getTotalActiveTime();
+    }
+
+    private static double sum(final double[] values) {
+        double sum = 0;
+        for (final double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    public double getHorizon() {
+        return horizon;
+    }
+}
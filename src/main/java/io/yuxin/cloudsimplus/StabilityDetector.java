@@ -0,0 +1,210 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * Detects when a usage series (like the all CPU usage) is stable,
+ * so that the controller can re-plan less often without missing a change of load.
+ *
+ * The load is stable when the coefficient of variation of the last {@link #getWindow()} observations
+ * is at most {@link #getMaxVariation()}. While it is stable, the number of intervals between re-plans
+ * is doubled after each plan applied, up to {@link #getMaxStretch()}.
+ * An observation more than {@link #getShiftThreshold()} standard deviations away from the mean of the window
+ * is a load shift, which makes the controller re-plan at once and at every interval again.
+ * The controller tells the outcome of each re-plan with {@link #recordPlan(boolean)}.
+ *
+ * @author yuxin wu
+ */
+public class StabilityDetector {
+    public static final int DEF_WINDOW = 12;
+    public static final double DEF_MAX_VARIATION = 0.02;
+    public static final double DEF_SHIFT_THRESHOLD = 3;
+    public static final int DEF_MAX_STRETCH = 16;
+
+    private final DoubleRingBuffer window;
+    private final double maxVariation;
+    private final double shiftThreshold;
+    private final int maxStretch;
+
+    /**
+     * The number of intervals between re-plans, 1 to re-plan at every interval.
+     */
+    private int stretch;
+    private int intervalsSinceReplan;
+
+    /**
+     * Whether the last re-plan was requested while the load was stable, so that a new plan stretches the interval.
+     */
+    private boolean stableReplan;
+
+    private long replans;
+    private long skips;
+    private long shifts;
+
+    public StabilityDetector() {
+        this(DEF_WINDOW, DEF_MAX_VARIATION, DEF_SHIFT_THRESHOLD, DEF_MAX_STRETCH);
+    }
+
+    /**
+     * @param window the number of last observations tested
+     * @param maxVariation the maximum coefficient of variation (standard deviation / mean) of a stable window
+     * @param shiftThreshold the number of standard deviations from the mean of the window that is a load shift
+     * @param maxStretch the maximum number of intervals between re-plans
+     */
+    public StabilityDetector(final int window, final double maxVariation, final double shiftThreshold, final int maxStretch) {
+        if(window < 2) {
+            throw new IllegalArgumentException("The window must have at least 2 observations.");
+        }
+        if(maxVariation < 0) {
+            throw new IllegalArgumentException("The maximum variation cannot be negative.");
+        }
+        if(shiftThreshold <= 0) {
+            throw new IllegalArgumentException("The shift threshold must be greater than zero.");
+        }
+        if(maxStretch < 1) {
+            throw new IllegalArgumentException("The maximum stretch must be at least 1.");
+        }
+
+        this.window = new DoubleRingBuffer(window);
+        this.maxVariation = maxVariation;
+        this.shiftThreshold = shiftThreshold;
+        this.maxStretch = maxStretch;
+        this.stretch = 1;
+    }
+
+    /**
+     * Adds the observation of the current interval and tells if the controller has to re-plan at it.
+     *
+     * @param value the observed value
+     * @return true to re-plan, false to keep the current plan
+     */
+    public boolean shouldReplan(final double value) {
+        final boolean shifted = isShift(value);
+        window.add(value);
+        stableReplan = false;
+
+        if(shifted || !isStable()) {
+            if(shifted) {
+                shifts++;
+            }
+            stretch = 1;
+            return true;
+        }
+
+        intervalsSinceReplan++;
+        if(intervalsSinceReplan >= stretch) {
+            stableReplan = true;
+            return true;
+        }
+
+        skips++;
+        return false;
+    }
+
+    /**
+     * Tells the outcome of a re-plan requested by {@link #shouldReplan(double)}.
+     * The interval between re-plans is stretched just after a plan is applied while the load is stable.
+     * A plan that could not be made (like while the forecaster warms up or fails)
+     * makes the controller re-plan again at the next interval.
+     *
+     * @param applied true if a plan was applied, false if the controller could not plan
+     */
+    public void recordPlan(final boolean applied) {
+        intervalsSinceReplan = 0;
+        if(!applied) {
+            stretch = 1;
+            return;
+        }
+
+        replans++;
+        if(stableReplan) {
+            stretch = Math.min(stretch * 2, maxStretch);
+        }
+    }
+
+    /**
+     * Checks if a value is too far from the observations in the window.
+     * The standard deviation is taken as at least the one a stable window may have,
+     * so that a nearly constant series does not make every small change a shift.
+     */
+    private boolean isShift(final double value) {
+        if(window.size() < 2) {
+            return false;
+        }
+
+        final double mean = mean();
+        final double deviation = Math.max(standardDeviation(mean), maxVariation * Math.abs(mean));
+        if(deviation == 0) {
+            return value != mean;
+        }
+        return Math.abs(value - mean) > shiftThreshold * deviation;
+    }
+
+    /**
+     * Checks if the window is full and its coefficient of variation is at most {@link #maxVariation}.
+     */
+    public boolean isStable() {
+        if(!window.isFull()) {
+            return false;
+        }
+
+        final double mean = mean();
+        return standardDeviation(mean) <= maxVariation * Math.abs(mean);
+    }
+
+    private double mean() {
+        double sum = 0;
+        for (int i = 0; i < window.size(); i++) {
+            sum += window.get(i);
+        }
+        return sum / window.size();
+    }
+
+    private double standardDeviation(final double mean) {
+        double sum = 0;
+        for (int i = 0; i < window.size(); i++) {
+            final double diff = window.get(i) - mean;
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum / window.size());
+    }
+
+    public int getWindow() {
+        return window.capacity();
+    }
+
+    public double getMaxVariation() {
+        return maxVariation;
+    }
+
+    public double getShiftThreshold() {
+        return shiftThreshold;
+    }
+
+    public int getMaxStretch() {
+        return maxStretch;
+    }
+
+    /**
+     * Gets the current number of intervals between re-plans.
+     */
+    public int getStretch() {
+        return stretch;
+    }
+
+    /**
+     * Gets the number of plans applied.
+     */
+    public long getReplans() {
+        return replans;
+    }
+
+    public long getSkips() {
+        return skips;
+    }
+
+    /**
+     * Gets the number of load shifts detected.
+     */
+    public long getShifts() {
+        return shifts;
+    }
+}
@@ -0,0 +1,41 @@
+package io.yuxin.cloudsimplus;
+
+/**
+ * Forecasts a usage series (like the all CPU usage of a datacenter)
+ * that receives one observation for each scheduling interval.
+ *
+ * Implementations keep their own state between observations,
+ * so that each interval costs just an update and a forecast.
+ *
+ * @author yuxin wu
+ */
+public interface UsageForecaster {
+
+    /**
+     * Adds a new observation to the series.
+     *
+     * @param value the observed value
+     */
+    void addObservation(double value);
+
+    /**
+     * Forecasts the value of the series a given number of steps ahead of the last observation.
+     *
+     * @param steps the number of steps ahead (1 is the next observation)
+     * @return the forecast value or {@link Double#NaN} if there are not enough observations yet
+     */
+    double forecast(int steps);
+
+    /**
+     * Forecasts the values of consecutive steps ahead of the last observation.
+     * By default, each step is forecast separately.
+     *
+     * @param firstStep the number of steps ahead of the first value (1 is the next observation)
+     * @param dest the array to store the values, from the first step on
+     */
+    default void forecast(final int firstStep, final double[] dest) {
+        for (int i = 0; i < dest.length; i++) {
+            dest[i] = forecast(firstStep + i);
+        }
+    }
+}
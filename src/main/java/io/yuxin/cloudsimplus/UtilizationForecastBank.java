@@ -0,0 +1,499 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.vms.UtilizationHistory;
+import org.cloudbus.cloudsim.vms.Vm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Forecasts the CPU usage (in MIPS) of groups of VMs, such as the VMs of each host,
+ * to find the hosts that are going to be overloaded before they are.
+ *
+ * Each group gets its own series, with one observation per interval: the sum of the CPU usage of its VMs.
+ * A new series starts from the {@link Vm#getUtilizationHistory() utilization history} of its VMs,
+ * so it can be fitted without waiting for a full window of intervals.
+ *
+ * Each series is modeled by an autoregressive model of order {@link #getOrder()},
+ * fitted by the Yule-Walker equations over its last {@link #getFitWindow()} observations.
+ * That is much cheaper than the ARIMA model of the all CPU usage, which matters for thousands of series.
+ * Series due to be fitted again wait in a queue, and at most {@link #getMaxRefitsPerInterval()}
+ * of them are fitted at each interval, as a batch run in parallel by a {@link ForkJoinPool}.
+ * Each worker thread reuses its own scratch buffers, so fitting does not allocate.
+ * Series not fitted yet keep forecasting with their last model.
+ *
+ * @param <K> the type of the key of each group of VMs
+ * @author yuxin wu
+ */
+public class UtilizationForecastBank<K> {
+    public static final int DEF_FIT_WINDOW = 24;
+    public static final int DEF_ORDER = 2;
+    public static final int DEF_REFIT_INTERVAL = 12;
+    public static final int DEF_MAX_REFITS_PER_INTERVAL = 256;
+
+    /**
+     * The number of series fitted by a single fork-join task, without splitting it further.
+     */
+    private static final int FIT_TASK_SIZE = 8;
+
+    private final Function<? super Vm, ? extends K> groupBy;
+    private final int fitWindow;
+    private final int order;
+    private final int refitInterval;
+    private final int maxRefitsPerInterval;
+    private final ForkJoinPool pool;
+
+    private final Map<K, Series> seriesMap;
+    private final ArrayDeque<Series> refitQueue;
+    private final ThreadLocal<Scratch> scratch;
+
+    private long intervals;
+    private long refits;
+    private int lastRefits;
+    private long lastRefitNanos;
+
+    /**
+     * Creates a bank with a series for each host, using the common fork-join pool.
+     * VMs not placed into a host are ignored.
+     */
+    public static UtilizationForecastBank<Host> byHost() {
+        return new UtilizationForecastBank<>(vm -> vm.getHost() == Host.NULL ? null : vm.getHost());
+    }
+
+    /**
+     * Creates a bank with the default parameters, using the common fork-join pool.
+     *
+     * @param groupBy gets the key of the group of a VM, or null to ignore the VM
+     */
+    public UtilizationForecastBank(final Function<? super Vm, ? extends K> groupBy) {
+        this(groupBy, DEF_FIT_WINDOW, DEF_ORDER, DEF_REFIT_INTERVAL, DEF_MAX_REFITS_PER_INTERVAL, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a bank of forecasts.
+     *
+     * @param groupBy gets the key of the group of a VM, or null to ignore the VM
+     * @param fitWindow the number of last observations of each series the model is fitted to
+     * @param order the order of the autoregressive model of each series
+     * @param refitInterval the number of observations after which a series is due to be fitted again
+     * @param maxRefitsPerInterval the maximum number of series fitted at each interval
+     * @param pool the pool where the series are fitted
+     */
+    public UtilizationForecastBank(
+            final Function<? super Vm, ? extends K> groupBy,
+            final int fitWindow, final int order, final int refitInterval,
+            final int maxRefitsPerInterval, final ForkJoinPool pool)
+    {
+        if(order <= 0) {
+            throw new IllegalArgumentException("The order must be greater than zero.");
+        }
+        if(fitWindow <= order) {
+            throw new IllegalArgumentException("The fit window must be greater than the order.");
+        }
+        if(refitInterval <= 0) {
+            throw new IllegalArgumentException("The refit interval must be greater than zero.");
+        }
+        if(maxRefitsPerInterval <= 0) {
+            throw new IllegalArgumentException("The maximum number of refits per interval must be greater than zero.");
+        }
+
+        this.groupBy = Objects.requireNonNull(groupBy);
+        this.fitWindow = fitWindow;
+        this.order = order;
+        this.refitInterval = refitInterval;
+        this.maxRefitsPerInterval = maxRefitsPerInterval;
+        this.pool = Objects.requireNonNull(pool);
+        this.seriesMap = new LinkedHashMap<>();
+        this.refitQueue = new ArrayDeque<>();
+        this.scratch = ThreadLocal.withInitial(Scratch::new);
+    }
+
+    /**
+     * Adds the observation of the current interval to the series of each group
+     * and fits the series that are due, up to {@link #maxRefitsPerInterval}.
+     * A series whose group had no VM during a whole fit window is removed.
+     *
+     * @param vmList the VMs to observe
+     */
+    public void update(final List<? extends Vm> vmList) {
+        intervals++;
+        for (final Vm vm : vmList) {
+            final K key = groupBy.apply(vm);
+            if(key == null) {
+                continue;
+            }
+
+            Series series = seriesMap.get(key);
+            if(series == null) {
+                series = new Series(key);
+                seriesMap.put(key, series);
+            }
+            series.observe(vm);
+        }
+
+        final Iterator<Series> iterator = seriesMap.values().iterator();
+        while(iterator.hasNext()) {
+            final Series series = iterator.next();
+            if(series.endInterval()) {
+                series.removed = true;
+                iterator.remove();
+            } else if(series.isDueToFit()) {
+                series.queued = true;
+                refitQueue.add(series);
+            }
+        }
+
+        refitQueued();
+    }
+
+    private void refitQueued() {
+        final List<Series> batch = new ArrayList<>(Math.min(maxRefitsPerInterval, refitQueue.size()));
+        while(batch.size() < maxRefitsPerInterval && !refitQueue.isEmpty()) {
+            final Series series = refitQueue.poll();
+            series.queued = false;
+            if(!series.removed) {
+                batch.add(series);
+            }
+        }
+
+        final long start = System.nanoTime();
+        if(!batch.isEmpty()) {
+            pool.invoke(new FitTask(batch, 0, batch.size()));
+        }
+        lastRefitNanos = System.nanoTime() - start;
+        lastRefits = batch.size();
+        refits += batch.size();
+    }
+
+    /**
+     * Forecasts the CPU usage of a group some steps ahead of its last observation.
+     *
+     * @param key the key of the group
+     * @param steps the number of steps ahead (1 is the next interval)
+     * @return the forecast usage in MIPS, or {@link Double#NaN} if the series of the group was not fitted yet
+     */
+    public double forecast(final K key, final int steps) {
+        if(steps <= 0) {
+            throw new IllegalArgumentException("The number of steps must be greater than zero.");
+        }
+        final Series series = seriesMap.get(key);
+        return series == null ? Double.NaN : series.forecast(steps, scratch.get());
+    }
+
+    /**
+     * Forecasts the CPU usage of every group that has a fitted series.
+     *
+     * @param steps the number of steps ahead (1 is the next interval)
+     * @return a map where each key is a group and each value is its forecast usage in MIPS
+     */
+    public Map<K, Double> getForecasts(final int steps) {
+        if(steps <= 0) {
+            throw new IllegalArgumentException("The number of steps must be greater than zero.");
+        }
+        final Scratch buffers = scratch.get();
+        final Map<K, Double> forecasts = new LinkedHashMap<>();
+        for (final Series series : seriesMap.values()) {
+            if(series.fitted) {
+                forecasts.put(series.key, series.forecast(steps, buffers));
+            }
+        }
+        return forecasts;
+    }
+
+    /**
+     * Gets the groups whose forecast usage goes over a fraction of their capacity.
+     *
+     * @param steps the number of steps ahead (1 is the next interval)
+     * @param capacity gets the CPU capacity of a group in MIPS, such as {@link Host#getTotalMipsCapacity()}
+     * @param threshold the fraction of the capacity from which a group is a hotspot
+     * @return the groups forecast to be over the threshold
+     */
+    public List<K> getHotspots(final int steps, final ToDoubleFunction<? super K> capacity, final double threshold) {
+        if(steps <= 0) {
+            throw new IllegalArgumentException("The number of steps must be greater than zero.");
+        }
+        final Scratch buffers = scratch.get();
+        final List<K> hotspots = new ArrayList<>();
+        for (final Series series : seriesMap.values()) {
+            if(series.fitted && series.forecast(steps, buffers) > threshold * capacity.applyAsDouble(series.key)) {
+                hotspots.add(series.key);
+            }
+        }
+        return hotspots;
+    }
+
+    public int getFitWindow() {
+        return fitWindow;
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    public int getRefitInterval() {
+        return refitInterval;
+    }
+
+    public int getMaxRefitsPerInterval() {
+        return maxRefitsPerInterval;
+    }
+
+    public int getSeriesCount() {
+        return seriesMap.size();
+    }
+
+    /**
+     * Gets the number of series waiting to be fitted in a next interval.
+     */
+    public int getPendingRefits() {
+        return refitQueue.size();
+    }
+
+    /**
+     * Gets the number of series fitted so far.
+     */
+    public long getRefits() {
+        return refits;
+    }
+
+    /**
+     * Gets the number of series fitted at the last interval.
+     */
+    public int getLastRefits() {
+        return lastRefits;
+    }
+
+    /**
+     * Gets the time taken to fit the series at the last interval, in nanoseconds.
+     */
+    public long getLastRefitNanos() {
+        return lastRefitNanos;
+    }
+
+    /**
+     * The series of a group of VMs and its model.
+     * It is just changed by the simulation thread, except when fitted inside a {@link FitTask}.
+     */
+    private final class Series {
+        private final K key;
+        private final DoubleRingBuffer window;
+
+        /**
+         * The AR coefficients, where coefficients[i] multiplies the value i + 1 steps back.
+         */
+        private final double[] coefficients;
+        private double mean;
+        private boolean fitted;
+
+        private int observationsSinceFit;
+        private boolean queued;
+        private boolean removed;
+
+        private double intervalMips;
+        private long lastSeenInterval;
+        private int idleIntervals;
+
+        /**
+         * The sum of the utilization history of the VMs of a new series, by age (0 is the newest),
+         * used to start the series before its first observation.
+         */
+        private double[] seed;
+
+        private Series(final K key) {
+            this.key = key;
+            this.window = new DoubleRingBuffer(fitWindow);
+            this.coefficients = new double[order];
+            this.seed = new double[0];
+        }
+
+        /**
+         * Adds the usage of a VM of the group to the observation of the current interval.
+         */
+        private void observe(final Vm vm) {
+            final double capacity = vm.getTotalMipsCapacity();
+            intervalMips += vm.getCpuPercentUsage() * capacity;
+            lastSeenInterval = intervals;
+
+            final UtilizationHistory history = vm.getUtilizationHistory();
+            if(seed != null && history != null && history.isEnabled()) {
+                // the history is newest first and its newest value is the current one
+                final List<Double> values = history.getHistory();
+                final int ages = Math.min(values.size() - 1, fitWindow - 1);
+                if(ages > seed.length) {
+                    seed = Arrays.copyOf(seed, ages);
+                }
+                for (int age = 1; age <= ages; age++) {
+                    seed[age - 1] += values.get(age) * capacity;
+                }
+            }
+        }
+
+        /**
+         * Adds the observation of the current interval.
+         *
+         * @return true if the series has to be removed because its group had no VM for a whole fit window
+         */
+        private boolean endInterval() {
+            if(seed != null) {
+                for (int age = seed.length - 1; age >= 0; age--) {
+                    window.add(seed[age]);
+                }
+                seed = null;
+            }
+
+            if(lastSeenInterval == intervals) {
+                idleIntervals = 0;
+            } else if(++idleIntervals >= fitWindow) {
+                return true;
+            }
+
+            window.add(intervalMips);
+            intervalMips = 0;
+            observationsSinceFit++;
+            return false;
+        }
+
+        private boolean isDueToFit() {
+            return !queued && window.isFull() && (!fitted || observationsSinceFit >= refitInterval);
+        }
+
+        /**
+         * Fits the AR model by the Yule-Walker equations, solved by the Levinson-Durbin recursion.
+         */
+        private void fit(final Scratch buffers) {
+            final int n = window.size();
+            final double[] values = buffers.values(n);
+            window.copyLast(n, values, 0);
+
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += values[i];
+            }
+            final double mean = sum / n;
+            for (int i = 0; i < n; i++) {
+                values[i] -= mean;
+            }
+
+            final double[] autocovariance = buffers.autocovariance(order + 1);
+            for (int lag = 0; lag <= order; lag++) {
+                double acc = 0;
+                for (int i = lag; i < n; i++) {
+                    acc += values[i] * values[i - lag];
+                }
+                autocovariance[lag] = acc / n;
+            }
+
+            final double[] previous = buffers.previous(order);
+            Arrays.fill(coefficients, 0);
+            double error = autocovariance[0];
+            for (int k = 0; k < order && error > 0; k++) {
+                double acc = autocovariance[k + 1];
+                for (int j = 0; j < k; j++) {
+                    acc -= coefficients[j] * autocovariance[k - j];
+                }
+                final double reflection = acc / error;
+
+                System.arraycopy(coefficients, 0, previous, 0, k);
+                for (int j = 0; j < k; j++) {
+                    coefficients[j] = previous[j] - reflection * previous[k - 1 - j];
+                }
+                coefficients[k] = reflection;
+                error *= 1 - reflection * reflection;
+            }
+
+            this.mean = mean;
+            this.fitted = true;
+            this.observationsSinceFit = 0;
+        }
+
+        private double forecast(final int steps, final Scratch buffers) {
+            if(!fitted) {
+                return Double.NaN;
+            }
+
+            final double[] values = buffers.values(order + steps);
+            for (int i = 0; i < order; i++) {
+                values[i] = window.getNewest(order - 1 - i) - mean;
+            }
+            for (int step = 0; step < steps; step++) {
+                double value = 0;
+                for (int i = 0; i < order; i++) {
+                    value += coefficients[i] * values[order + step - i - 1];
+                }
+                values[order + step] = value;
+            }
+
+            return Math.max(0, values[order + steps - 1] + mean);
+        }
+    }
+
+    /**
+     * Fits a range of a batch of series, splitting it between the workers of the pool.
+     */
+    private final class FitTask extends RecursiveAction {
+        private final List<Series> batch;
+        private final int from;
+        private final int to;
+
+        private FitTask(final List<Series> batch, final int from, final int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= FIT_TASK_SIZE) {
+                final Scratch buffers = scratch.get();
+                for (int i = from; i < to; i++) {
+                    batch.get(i).fit(buffers);
+                }
+                return;
+            }
+
+            final int middle = (from + to) >>> 1;
+            invokeAll(new FitTask(batch, from, middle), new FitTask(batch, middle, to));
+        }
+    }
+
+    /**
+     * The buffers reused by each thread that fits or forecasts series, grown as needed.
+     */
+    private static final class Scratch {
+        private double[] values = new double[0];
+        private double[] autocovariance = new double[0];
+        private double[] previous = new double[0];
+
+        private double[] values(final int length) {
+            if(values.length < length) {
+                values = new double[length];
+            }
+            return values;
+        }
+
+        private double[] autocovariance(final int length) {
+            if(autocovariance.length < length) {
+                autocovariance = new double[length];
+            }
+            return autocovariance;
+        }
+
+        private double[] previous(final int length) {
+            if(previous.length < length) {
+                previous = new double[length];
+            }
+            return previous;
+        }
+    }
+}
@@ -7,11 +7,7 @@ import org.cloudbus.cloudsim.vms.Vm;
 
 import java.util.*;
 
-import com.github.signaflo.timeseries.TimeSeries;
-import com.github.signaflo.timeseries.forecast.Forecast;
-import com.github.signaflo.timeseries.model.arima.Arima;
 import com.github.signaflo.timeseries.model.arima.ArimaOrder;
-import com.github.signaflo.math.operations.DoubleFunctions;
 
 /*
 A simple implement of paper
@@ -21,11 +17,59 @@ https://www.researchgate.net/profile/Mohamed_Faten_Zhani/publication/262290042_D
 
 public class VmAllocationPolicyMigrationDynamicUsagePredictionControl extends VmAllocationPolicyAbstract {
 
-    private final Set<Host> runningHostSet;
-    private final Set<Host> deadHostSet;
-    private final Set<Host> idleHostSet;
+    private final HostStateTracker hostStates;
 
-    private final List<Double> allCpuutilizationHistory;
+    /**
+     * Default number of last observations of the all CPU usage that are kept.
+     */
+    public static final int DEF_HISTORY_CAPACITY = 1024;
+
+    private final DoubleRingBuffer allCpuutilizationHistory;
+
+    private final UsageForecaster forecaster;
+
+    private ConsolidationPlanner consolidationPlanner;
+
+    /**
+     * The hosts ordered by free PEs, kept together with {@link #getHostFreePesMap()}.
+     */
+    private final FreePesIndex freePesIndex;
+
+    /**
+     * @see #setSlaWindowHorizon(double)
+     */
+    private double slaWindowHorizon;
+    private final Map<Host, SlidingSlaAccumulator> slaWindows;
+
+    private final ControllerMetrics metrics;
+
+    private final PhaseTimer phaseTimer;
+
+    /**
+     * The hosts state read once per interval, from which the aggregates of the controller are computed.
+     */
+    private final FleetSnapshot fleet;
+
+    /**
+     * The number of steps ahead of the last observation of the first forecast used by the controller.
+     */
+    private static final int FIRST_FORECAST_STEP = 2;
+
+    /**
+     * @see #setHorizonOptimizer(RecedingHorizonOptimizer)
+     */
+    private RecedingHorizonOptimizer horizonOptimizer;
+    private double[] horizonForecast;
+
+    /**
+     * @see #setStabilityDetector(StabilityDetector)
+     */
+    private StabilityDetector stabilityDetector;
+
+    /**
+     * @see #setForecastBank(UtilizationForecastBank)
+     */
+    private UtilizationForecastBank<?> forecastBank;
 
     private double averagePowerOfIdle;
 
@@ -37,11 +81,143 @@ public class VmAllocationPolicyMigrationDynamicUsagePredictionControl extends Vm
     }
 
     public VmAllocationPolicyMigrationDynamicUsagePredictionControl(int lag) {
+        this(lag, IncrementalArimaForecaster.DEF_REFIT_INTERVAL);
+    }
+
+    /**
+     * @param lag the number of last observations the ARIMA model is fitted to
+     * @param refitInterval the number of scheduling intervals after which the ARIMA model is fitted again
+     */
+    public VmAllocationPolicyMigrationDynamicUsagePredictionControl(int lag, int refitInterval) {
+        this(lag, new IncrementalArimaForecaster(
+                ArimaOrder.order(0, 1, 1, 0, 1, 1), lag,
+                refitInterval, IncrementalArimaForecaster.DEF_DRIFT_THRESHOLD));
+    }
+
+    /**
+     * Creates a controller whose ARIMA model is given a time budget at each interval,
+     * falling back to Holt exponential smoothing and then to the last observation
+     * when the model takes longer or fails.
+     *
+     * @param lag the number of last observations the ARIMA model is fitted to
+     * @param refitInterval the number of scheduling intervals after which the ARIMA model is fitted again
+     * @param forecastBudgetMillis the maximum time to wait for the ARIMA model at each interval
+     * @see FallbackForecaster
+     */
+    public VmAllocationPolicyMigrationDynamicUsagePredictionControl(int lag, int refitInterval, long forecastBudgetMillis) {
+        this(lag, new FallbackForecaster(
+                forecastBudgetMillis, PipelinedForecaster.DEF_MAX_STEPS, lag,
+                new IncrementalArimaForecaster(
+                        ArimaOrder.order(0, 1, 1, 0, 1, 1), lag,
+                        refitInterval, IncrementalArimaForecaster.DEF_DRIFT_THRESHOLD),
+                new HoltWintersForecaster(0.5, 0.1),
+                new LastValueForecaster()));
+    }
+
+    /**
+     * @param lag the minimum number of observations of the all CPU usage before predicting
+     * @param forecaster the forecaster of the all CPU usage
+     */
+    public VmAllocationPolicyMigrationDynamicUsagePredictionControl(int lag, UsageForecaster forecaster) {
+        this(lag, forecaster, Math.max(lag, DEF_HISTORY_CAPACITY));
+    }
+
+    /**
+     * @param lag the minimum number of observations of the all CPU usage before predicting
+     * @param forecaster the forecaster of the all CPU usage
+     * @param historyCapacity the number of last observations of the all CPU usage that are kept
+     */
+    public VmAllocationPolicyMigrationDynamicUsagePredictionControl(int lag, UsageForecaster forecaster, int historyCapacity) {
+        if(historyCapacity < lag) {
+            throw new IllegalArgumentException("The history capacity cannot be smaller than the lag.");
+        }
         this.lag = lag;
-        this.runningHostSet = new TreeSet<>();
-        this.deadHostSet = new TreeSet<>();
-        this.idleHostSet = new TreeSet<>();
-        this.allCpuutilizationHistory = new ArrayList<>();
+        this.forecaster = Objects.requireNonNull(forecaster);
+        this.hostStates = new HostStateTracker();
+        this.consolidationPlanner = new ConsolidationPlanner();
+        this.freePesIndex = new FreePesIndex();
+        this.slaWindows = new LinkedHashMap<>();
+        this.allCpuutilizationHistory = new DoubleRingBuffer(historyCapacity);
+        this.metrics = new ControllerMetrics();
+        this.phaseTimer = new PhaseTimer();
+        this.fleet = new FleetSnapshot();
+    }
+
+    /**
+     * Gets the gauges and counters of the controller, where {@link MetricsSink}s can be added.
+     */
+    public ControllerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the timer of the phases of each controller interval.
+     */
+    public PhaseTimer getPhaseTimer() {
+        return phaseTimer;
+    }
+
+    /**
+     * Gets the snapshot of the hosts taken at the last interval.
+     */
+    public FleetSnapshot getFleetSnapshot() {
+        return fleet;
+    }
+
+    public UtilizationForecastBank<?> getForecastBank() {
+        return forecastBank;
+    }
+
+    /**
+     * Sets a bank that forecasts the CPU usage of each host or group of VMs, besides the all CPU usage,
+     * to find hotspots before they happen. The bank is updated at every interval with the VMs given to
+     * {@link #getOptimizedAllocationMap(List)}.
+     *
+     * @param forecastBank the bank, or null to forecast just the all CPU usage
+     */
+    public void setForecastBank(final UtilizationForecastBank<?> forecastBank) {
+        this.forecastBank = forecastBank;
+    }
+
+    public StabilityDetector getStabilityDetector() {
+        return stabilityDetector;
+    }
+
+    /**
+     * Sets a detector of stable load that makes the controller skip re-planning while the all CPU usage does not move.
+     * Skipped intervals just take the fleet snapshot and add the usage observation.
+     *
+     * @param stabilityDetector the detector, or null to re-plan at every interval
+     */
+    public void setStabilityDetector(final StabilityDetector stabilityDetector) {
+        this.stabilityDetector = stabilityDetector;
+    }
+
+    public RecedingHorizonOptimizer getHorizonOptimizer() {
+        return horizonOptimizer;
+    }
+
+    /**
+     * Sets an optimizer that plans the number of hosts over the forecast horizon,
+     * instead of computing it just for the next step with the closed-form formula.
+     * Just the first step of each plan is applied.
+     *
+     * @param horizonOptimizer the optimizer, or null to use the closed-form formula
+     */
+    public void setHorizonOptimizer(final RecedingHorizonOptimizer horizonOptimizer) {
+        this.horizonOptimizer = horizonOptimizer;
+        this.horizonForecast = horizonOptimizer == null ? null : new double[horizonOptimizer.getHorizon()];
+    }
+
+    public UsageForecaster getForecaster() {
+        return forecaster;
+    }
+
+    /**
+     * Gets a read-only view of the last observations of the all CPU usage (in MIPS), oldest first.
+     */
+    public DoubleRingBuffer.View getAllCpuUtilizationHistory() {
+        return allCpuutilizationHistory.lastValues(allCpuutilizationHistory.capacity());
     }
 
     /**
@@ -56,38 +232,71 @@ public class VmAllocationPolicyMigrationDynamicUsagePredictionControl extends Vm
      */
     @Override
     public Map<Vm, Host> getOptimizedAllocationMap(final List<? extends Vm> vmList) {
+        metrics.startInterval();
+        long start = phaseTimer.start();
+        fleet.refresh(getHostList());
+        phaseTimer.stop(ControllerPhase.FLEET_SNAPSHOT, start);
+        this.averagePowerOfIdle = fleet.getAverageIdlePower();
+        metrics.setAverageIdlePower(averagePowerOfIdle);
+
+        final double usedMips = fleet.getUsedMipsOfActiveHosts();
+        start = phaseTimer.start();
+        addCurrentAllCpuMips(usedMips);
+        phaseTimer.stop(ControllerPhase.ADD_CPU_OBSERVATION, start);
+
+        if(forecastBank != null) {
+            start = phaseTimer.start();
+            forecastBank.update(vmList);
+            phaseTimer.stop(ControllerPhase.GROUP_FORECASTS, start);
+        }
+
+        // the forecaster keeps receiving the observations of the skipped intervals
+        if(stabilityDetector != null && !stabilityDetector.shouldReplan(usedMips)) {
+            metrics.addSkippedInterval();
+            metrics.publish(getDatacenter().getSimulation().clock());
+            return Collections.emptyMap();
+        }
+
+        start = phaseTimer.start();
         updateHostStateSet();
-        this.averagePowerOfIdle = computeAveragePowerOfIdle(getHostList());
+        phaseTimer.stop(ControllerPhase.UPDATE_HOST_STATES, start);
+
         int nextNumberOfHost = predictNextNumberOfHost(getHostList());
-        return reconfiguration(nextNumberOfHost);
+        if(stabilityDetector != null) {
+            stabilityDetector.recordPlan(nextNumberOfHost != -1);
+        }
+
+        start = phaseTimer.start();
+        final Map<Vm, Host> migrationMap = reconfiguration(nextNumberOfHost);
+        phaseTimer.stop(ControllerPhase.RECONFIGURATION, start);
+        metrics.publish(getDatacenter().getSimulation().clock());
+        return migrationMap;
     }
 
     private Map<Vm, Host> reconfiguration(int nextNumberOfHost) {
         if(nextNumberOfHost==-1) {
-            System.out.println("predict error");
             return Collections.EMPTY_MAP;
         }
-        int activedNumber = (int) getHostList().stream().filter(host -> host.isActive()).count();
+        int activedNumber = hostStates.getActiveHostsNumber();
         final Map<Vm, Host> migrationMap = new HashMap<>();
         if(activedNumber < nextNumberOfHost) {
             int need = nextNumberOfHost - activedNumber;
-            for(Host host : deadHostSet) {
-                host.setActive(true);
-                deadHostSet.remove(host);
+            // the tracker moves each activated host out of the dead set
+            while(need > 0 && !hostStates.getDeadHosts().isEmpty()) {
+                hostStates.setActive(hostStates.getDeadHosts().first(), true);
+                metrics.addHostsActivated(1);
                 need--;
-                if(need==0) break;
             }
         }else if(activedNumber > nextNumberOfHost) {
             int reduce = activedNumber - nextNumberOfHost;
-            for (Host host : idleHostSet) {
-                host.setActive(false);
-                idleHostSet.remove(host);
-                deadHostSet.add(host);
+            while(reduce > 0 && !hostStates.getIdleHosts().isEmpty()) {
+                hostStates.setActive(hostStates.getIdleHosts().first(), false);
+                metrics.addHostsDeactivated(1);
                 reduce--;
-                if (reduce == 0) break;
             }
             if (reduce > 0) {
-                //todo: migrate vms on low usage host
+                // migrate vms on low usage hosts, which will be idle and powered off in the next intervals
+                migrationMap.putAll(consolidationPlanner.plan(hostStates.getRunningHosts(), reduce));
             }
         }
         return migrationMap;
@@ -105,129 +314,287 @@ public class VmAllocationPolicyMigrationDynamicUsagePredictionControl extends Vm
         // int Nk = broker.getCloudletWaitingList().size();
 
         double PPowerk = 0.6; // to-do: electricity price at time k, can be different between day and night.
-        double GcpuLast = computeAndAddCurrentAllCpuMips(hostList);
 
         if(allCpuutilizationHistory.size()<this.lag) {
-            System.out.println("utilization size is too small");
+            metrics.addWarmupInterval();
             return -1;
         }
         // predict Gcpu at time k
-        double[] GcpuHistroy = getFixedLengthArrayFromList(allCpuutilizationHistory, n);
-        double Gcpuk = predict(GcpuHistroy, 12,1);
+        final long forecastStart = System.nanoTime();
+        double Gcpuk;
+        if(horizonOptimizer == null) {
+            Gcpuk = predict(FIRST_FORECAST_STEP);
+        } else {
+            forecaster.forecast(FIRST_FORECAST_STEP, horizonForecast);
+            Gcpuk = horizonForecast[0];
+        }
+        final long forecastNanos = System.nanoTime() - forecastStart;
+        metrics.getForecastLatency().record(forecastNanos);
+        phaseTimer.record(ControllerPhase.FORECAST, forecastNanos);
+        metrics.setPredictedCpuMips(Gcpuk);
+        // a forecaster warming up, late or failing gives NaN, then the current fleet is kept
+        if(!Double.isFinite(Gcpuk) || (horizonOptimizer != null && !isFinite(horizonForecast))) {
+            metrics.addPredictionFailure();
+            return -1;
+        }
         // get Wk; Wk = max(Gcpuk/Ccpuk)
         // Ccpuk, capacity for CPU  of a single machine at time k
+        // the max is given by the active host with the smallest capacity, or 0 if Gcpuk is not positive
         double Wk = 0;
-        for(Host h : hostList) {
-            if(h.isActive()) {
-                double Ccpuk = h.getTotalMipsCapacity();
-                double Wi = Gcpuk/Ccpuk;
-                if(Wi > Wk) Wk = Wi;
-            }
+        if(fleet.getActiveHosts() > 0) {
+            double Wi = Gcpuk/fleet.getMinActiveCapacity();
+            if(Wi > Wk) Wk = Wi;
         }
-        System.out.println("Wk="+Wk);
+        metrics.setMaxHostsLoad(Wk);
         // compute current SLA
-        double PSLAk = new Helper().getSlaViolationTimePercentageForHosts(hostList);
+        final long slaStart = phaseTimer.start();
+        double PSLAk = slaWindowHorizon > 0 ?
+                computeWindowedSlaViolationTimePercentage(hostList) :
+                new Helper().getSlaViolationTimePercentageForHosts(hostList);
+        phaseTimer.stop(ControllerPhase.SLA, slaStart);
         if(PSLAk == 0) {
             PSLAk = 1;
         }
+        metrics.setSlaViolation(PSLAk);
+
+        if(horizonOptimizer != null && fleet.getActiveHosts() > 0) {
+            final long optimizationStart = phaseTimer.start();
+            final int hosts = horizonOptimizer.optimize(
+                    horizonForecast, fleet.getActiveHosts(), M, fleet.getMinActiveCapacity(),
+                    PPowerk * Eidle, Nk * PSLAk * acpu);
+            phaseTimer.stop(ControllerPhase.OPTIMIZATION, optimizationStart);
+            metrics.setHostsNeeded(hosts);
+            if(hosts == -1) {
+                metrics.addPredictionFailure();
+            }
+            return hosts;
+        }
 
         // compute the next number of host needed, formula from the paper mentioned above
         Double Xk = Wk + Math.sqrt((Nk * PSLAk * acpu * Wk)/(PPowerk * Eidle));
+        metrics.setHostsNeeded(Xk);
         if(Xk.isNaN()) {
-            System.out.println("predict Xk is NAN");
+            metrics.addPredictionFailure();
             return -1;
         }
         return Xk.intValue()+1;
     }
 
-    private double predict(double[] history, int steps, int index) {
-        TimeSeries timeSeries = TimeSeries.from(DoubleFunctions.arrayFrom(history));
-        ArimaOrder modelOrder = ArimaOrder.order(0, 1, 1, 0, 1, 1);
-        Arima model = Arima.model(timeSeries, modelOrder);
-        Forecast forecast = model.forecast(steps);
-        return forecast.pointEstimates().at(index);
-    }
-
-    private double[] getFixedLengthArrayFromList(List<Double> list, int length) {
-        double[] rtn = new double[length];
-        for(int i=0;i<length;i++) {
-            rtn[i] = list.get(length-i-1);
+    private static boolean isFinite(final double[] values) {
+        for (final double value : values) {
+            if(!Double.isFinite(value)) {
+                return false;
+            }
         }
-        return rtn;
+        return true;
     }
 
-    private double[] getFixedLengthArrayFromArray(double[] array, int length) {
-        double[] rtn = new double[length];
-        for(int i=0;i<length;i++) {
-            rtn[i] = array[length-i-1];
-        }
-        return rtn;
+    /**
+     * Forecasts the all CPU usage some steps ahead,
+     * the model is kept by the forecaster and just updated with each new observation.
+     */
+    private double predict(int steps) {
+        return forecaster.forecast(steps);
     }
 
 
-    private double computeAveragePowerOfIdle(List<Host> hostList) {
-        double sum = 0;
-        for (Host h : hostList) {
-            sum += h.getPowerSupply().getPower(0);
+    /**
+     * Computes the SLA violation time percentage of the hosts just inside the last {@link #slaWindowHorizon} seconds.
+     * Each {@link SimpleHost} gets a window which is updated together with its state history.
+     * While no host was active inside the windows, such as right after they are attached,
+     * the SLA violation since the simulation start is used.
+     */
+    private double computeWindowedSlaViolationTimePercentage(List<Host> hostList) {
+        attachSlaWindows(hostList);
+        double totalHostsActiveTime = 0;
+        double totalHostsSlaViolationTime = 0;
+        for (Map.Entry<Host, SlidingSlaAccumulator> entry : slaWindows.entrySet()) {
+            final SlidingSlaAccumulator window = entry.getValue();
+            window.advanceTo(entry.getKey().getSimulation().clock());
+            totalHostsActiveTime += window.getTotalActiveTime();
+            totalHostsSlaViolationTime += window.getTotalSlaViolationTime();
         }
-        System.out.println("sum="+sum);
-        System.out.println("hostsize="+hostList.size());
-        return sum / hostList.size();
+
+        if (totalHostsActiveTime == 0) {
+            final double sinceStart = new Helper().getSlaViolationTimePercentageForHosts(hostList);
+            return Double.isNaN(sinceStart) ? 0 : sinceStart;
+        }
+        return totalHostsSlaViolationTime / totalHostsActiveTime;
     }
 
-    private  double computeAndAddCurrentAllCpuMips(List<Host> hostList) {
-        double rtn = 0;
-        for(Host h : hostList) {
-            if(h.isActive()) {
-                rtn += h.getUtilizationOfCpuMips();
+    /**
+     * Attaches a SLA window to each {@link SimpleHost} that doesn't have one yet,
+     * so that the windows start filling as soon as the hosts are known.
+     */
+    private void attachSlaWindows(List<Host> hostList) {
+        if (slaWindowHorizon <= 0 || slaWindows.size() == hostList.size()) {
+            return;
+        }
+
+        for (Host host : hostList) {
+            if (host instanceof SimpleHost && !slaWindows.containsKey(host)) {
+                final SlidingSlaAccumulator window = new SlidingSlaAccumulator(slaWindowHorizon);
+                ((SimpleHost) host).addSlaAccumulator(window);
+                slaWindows.put(host, window);
             }
         }
+    }
 
-        allCpuutilizationHistory.add(0,rtn); // newest at first
+    /**
+     * Adds the all CPU usage of the current interval to the history and the forecaster.
+     */
+    private double addCurrentAllCpuMips(double rtn) {
+        allCpuutilizationHistory.add(rtn);
+        forecaster.addObservation(rtn);
         return rtn;
     }
 
+    /**
+     * Updates the dead, idle and running hosts.
+     * The hosts are classified once and then {@link SimpleHost}s notify their state changes,
+     * so just other kind of hosts are classified again.
+     */
     private void updateHostStateSet() {
+        hostStates.track(getHostList());
+        hostStates.update();
+        attachSlaWindows(getHostList());
+    }
+
+    public HostStateTracker getHostStates() {
+        return hostStates;
+    }
+
+    public ConsolidationPlanner getConsolidationPlanner() {
+        return consolidationPlanner;
+    }
+
+    public void setConsolidationPlanner(ConsolidationPlanner consolidationPlanner) {
+        this.consolidationPlanner = Objects.requireNonNull(consolidationPlanner);
+    }
+
+    public double getSlaWindowHorizon() {
+        return slaWindowHorizon;
+    }
 
-        for(Host h : deadHostSet) {
-            if(h.isActive()) deadHostSet.remove(h);
+    /**
+     * Sets the length of the time window used to compute the SLA violation (PSLAk) that is the input of the controller.
+     * The SLA accumulated since the simulation start barely reacts to new violations in long runs.
+     *
+     * @param slaWindowHorizon the length of the window in seconds, or 0 to use the SLA since the simulation start
+     *                         (just {@link SimpleHost}s are considered when using a window)
+     */
+    public void setSlaWindowHorizon(double slaWindowHorizon) {
+        if (slaWindowHorizon < 0) {
+            throw new IllegalArgumentException("The SLA window horizon cannot be negative.");
+        }
+        if (slaWindowHorizon != this.slaWindowHorizon) {
+            slaWindows.forEach((host, window) -> ((SimpleHost) host).removeSlaAccumulator(window));
+            slaWindows.clear();
         }
+        this.slaWindowHorizon = slaWindowHorizon;
+        if (getDatacenter() != null) {
+            attachSlaWindows(getHostList());
+        }
+    }
 
-        for(Host h : idleHostSet) {
-            if( (!h.isActive()) || h.getUtilizationOfCpu() > 0) idleHostSet.remove(h);
+    /**
+     * Finds the suitable host with the most free PEs, the one with the lowest id on ties.
+     * Hosts are kept ordered by free PEs, so the first suitable one is taken.
+     */
+    @Override
+    public Optional<Host> findHostForVm(final Vm vm) {
+        syncFreePesIndex();
+        return freePesIndex.findFirst(host -> host.isSuitableForVm(vm));
+    }
+
+    /**
+     * Builds the free PEs index again if hosts were added to the datacenter since it was built.
+     *
+     * Besides filling {@link #getHostFreePesMap()} when the hosts of the datacenter are set,
+     * which changes its size, the superclass never writes the map:
+     * {@link #allocateHostForVm(Vm, Host)} and {@link #deallocateHostForVm(Vm)} are its only writers
+     * and update the index together with it. A subclass changing the map in another way
+     * must update the index too, or the index keeps ordering hosts by their previous free PEs.
+     */
+    private void syncFreePesIndex() {
+        if(freePesIndex.size() != getHostFreePesMap().size()) {
+            freePesIndex.putAll(getHostFreePesMap());
         }
+    }
 
-        for(Host h : runningHostSet) {
-            if( h.getUtilizationOfCpu() <=0 ) runningHostSet.remove(h);
+    /**
+     * Places a batch of VMs in a single pass, instead of finding a host for each VM separately.
+     * The VMs are taken in decreasing order of requested MIPS and placed according to
+     * a snapshot of the resources available in the active hosts, which is updated as VMs are placed.
+     *
+     * @param vmList the VMs to place
+     * @param mode the heuristic to choose the host of each VM
+     * @return a map where each key is a VM that was placed and each value is its host
+     */
+    public Map<Vm, Host> allocateHostsForVms(final List<? extends Vm> vmList, final BatchPlacementMode mode) {
+        final List<Vm> sortedVms = new ArrayList<>(vmList);
+        sortedVms.sort(Comparator.comparingDouble(Vm::getCurrentRequestedTotalMips)
+                .thenComparingLong(Vm::getNumberOfPes)
+                .reversed()
+                .thenComparingInt(Vm::getId));
+
+        final List<HostCapacity> capacities = new ArrayList<>();
+        final Map<Host, HostCapacity> capacityByHost = new HashMap<>();
+        for (final Host host : getHostList()) {
+            if(host.isActive()) {
+                final HostCapacity capacity = new HostCapacity(host);
+                capacities.add(capacity);
+                capacityByHost.put(host, capacity);
+            }
+        }
+        capacities.sort(Comparator.comparingInt(c -> c.getHost().getId()));
+
+        final Map<Vm, Host> placements = new LinkedHashMap<>();
+        for (final Vm vm : sortedVms) {
+            final HostCapacity capacity = mode == BatchPlacementMode.FIRST_FIT_DECREASING ?
+                    findFirstFit(vm, capacities) : findBestFit(vm, capacities);
+            if(capacity != null && allocateHostForVm(vm, capacity.getHost())) {
+                capacity.allocate(vm);
+                placements.put(vm, capacity.getHost());
+            } else if(allocateHostForVm(vm)) {
+                // the snapshot may disagree with the host about some resource
+                final HostCapacity fallback = capacityByHost.get(vm.getHost());
+                if(fallback != null) {
+                    fallback.allocate(vm);
+                }
+                placements.put(vm, vm.getHost());
+            }
         }
 
-        for(Host h : getHostList()) {
-            if(!h.isActive()) {
-                this.deadHostSet.add(h);
-            } else if (h.getUtilizationOfCpu() == 0) {
-                this.idleHostSet.add(h);
-            } else {
-                this.runningHostSet.add(h);
+        return placements;
+    }
+
+    private HostCapacity findFirstFit(final Vm vm, final List<HostCapacity> capacities) {
+        for (final HostCapacity capacity : capacities) {
+            if(capacity.isSuitableForVm(vm)) {
+                return capacity;
             }
         }
+        return null;
     }
 
-    @Override
-    public Optional<Host> findHostForVm(final Vm vm) {
-        final Map<Host, Long> map = getHostFreePesMap();
-        return map.entrySet()
-                .stream()
-                .filter(e -> e.getKey().isSuitableForVm(vm))
-                .sorted(Comparator.comparingInt(e -> e.getKey().getId()))
-                .max(Comparator.comparingLong(Map.Entry::getValue))
-                .map(Map.Entry::getKey);
+    private HostCapacity findBestFit(final Vm vm, final List<HostCapacity> capacities) {
+        HostCapacity best = null;
+        for (final HostCapacity capacity : capacities) {
+            if(capacity.isSuitableForVm(vm) && (best == null || capacity.getAvailableMips() < best.getAvailableMips())) {
+                best = capacity;
+            }
+        }
+        return best;
     }
 
     @Override
     public boolean allocateHostForVm(final Vm vm, final Host host) {
         if(super.allocateHostForVm(vm, host)){
             addUsedPes(vm);
-            getHostFreePesMap().put(host, getHostFreePesMap().get(host) - vm.getNumberOfPes());
+            final long freePes = getHostFreePesMap().get(host) - vm.getNumberOfPes();
+            getHostFreePesMap().put(host, freePes);
+            freePesIndex.put(host, freePes);
             return true;
         }
 
@@ -240,7 +607,8 @@ public class VmAllocationPolicyMigrationDynamicUsagePredictionControl extends Vm
         super.deallocateHostForVm(vm);
         final long pes = removeUsedPes(vm);
         if (previousHost != Host.NULL) {
-            getHostFreePesMap().compute(previousHost, (host, freePes) -> freePes == null ? pes : freePes + pes);
+            final long freePes = getHostFreePesMap().compute(previousHost, (host, free) -> free == null ? pes : free + pes);
+            freePesIndex.put(previousHost, freePes);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package io.yuxin.cloudsimplus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author yuxin wu
+ */
+public class FallbackForecasterTest {
+    /**
+     * A primary forecaster whose jobs cannot end before the test releases them,
+     * so that each job misses its budget whatever the load of the machine.
+     * The first job fails.
+     */
+    private static final class BlockedForecaster implements UsageForecaster {
+        private final Semaphore permits = new Semaphore(0);
+        private final List<Double> observations = Collections.synchronizedList(new ArrayList<>());
+        private int jobs;
+
+        @Override
+        public void addObservation(final double value) {
+            observations.add(value);
+        }
+
+        @Override
+        public double forecast(final int steps) {
+            return 0;
+        }
+
+        @Override
+        public void forecast(final int firstStep, final double[] dest) {
+            permits.acquireUninterruptibly();
+            if(++jobs == 1) {
+                throw new IllegalStateException("Fit failed");
+            }
+            Arrays.fill(dest, 0);
+        }
+    }
+
+    @Test
+    public void failureAfterTheBudgetIsCounted() {
+        final BlockedForecaster primary = new BlockedForecaster();
+        try (FallbackForecaster fallback = new FallbackForecaster(10, 4, 4, primary, new LastValueForecaster())) {
+            fallback.addObservation(1);
+            assertEquals(1, fallback.forecast(1), 0);
+            assertEquals(1, fallback.getTimeouts());
+            assertEquals(0, fallback.getFailures());
+
+            // the first job fails after its budget, before the next observation
+            primary.permits.release();
+            fallback.awaitPending();
+            fallback.addObservation(2);
+            assertEquals(2, fallback.forecast(1), 0);
+            assertEquals(2, fallback.getTimeouts());
+            assertEquals(1, fallback.getFailures());
+        } finally {
+            primary.permits.release(Integer.MAX_VALUE / 2);
+        }
+    }
+
+    @Test
+    public void backlogKeepsTheLastObservations() {
+        final BlockedForecaster primary = new BlockedForecaster();
+        try (FallbackForecaster fallback = new FallbackForecaster(10, 4, 4, primary, new LastValueForecaster())) {
+            fallback.addObservation(1);
+            primary.permits.release();
+            fallback.awaitPending();
+
+            // the primary forecaster is stuck with the job of observation 2 while 3 to 8 arrive
+            for (int value = 2; value <= 8; value++) {
+                fallback.addObservation(value);
+                assertEquals(value, fallback.forecast(1), 0);
+            }
+            assertEquals(8, fallback.getTimeouts());
+            assertEquals(2, fallback.getDroppedObservations());
+
+            primary.permits.release(2);
+            fallback.awaitPending();
+            fallback.addObservation(9);
+            fallback.awaitPending();
+            assertEquals(3, fallback.getDroppedObservations());
+            assertEquals(Arrays.asList(1.0, 2.0, 6.0, 7.0, 8.0, 9.0), primary.observations);
+        } finally {
+            primary.permits.release(Integer.MAX_VALUE / 2);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author yuxin wu
+ */
+public class FreePesIndexTest {
+    private static final int HOSTS = 40;
+
+    @Test
+    public void findsTheHostOfTheStreamOverTheFreePesMap() {
+        final List<Host> hosts = new ArrayList<>(HOSTS);
+        final Map<Host, Long> freePesMap = new HashMap<>();
+        // hosts are added out of id order, and few distinct free PEs make many ties
+        for (int i = HOSTS - 1; i >= 0; i--) {
+            final Host host = createHost(i);
+            hosts.add(host);
+            freePesMap.put(host, 4L);
+        }
+
+        final FreePesIndex index = new FreePesIndex();
+        index.putAll(freePesMap);
+        final Random random = new Random(3);
+        for (int k = 0; k < 1000; k++) {
+            final Host host = hosts.get(random.nextInt(HOSTS));
+            final long freePes = random.nextInt(5);
+            freePesMap.put(host, freePes);
+            index.put(host, freePes);
+
+            // a predicate like the suitability of a VM, rejecting some of the best hosts
+            final int modulo = 1 + random.nextInt(4);
+            final Predicate<Host> suitable = candidate -> candidate.getId() % modulo != 0;
+            assertEquals("Step " + k, findAsStream(freePesMap, suitable), index.findFirst(suitable));
+        }
+        assertEquals(Optional.empty(), index.findFirst(candidate -> false));
+    }
+
+    /**
+     * Finds a host like the policy did before the index: the most free PEs, the lowest id on ties.
+     */
+    static Optional<Host> findAsStream(final Map<Host, Long> freePesMap, final Predicate<Host> suitable) {
+        return freePesMap.entrySet()
+                .stream()
+                .filter(e -> suitable.test(e.getKey()))
+                .sorted(Comparator.comparingInt(e -> e.getKey().getId()))
+                .max(Comparator.comparingLong(Map.Entry::getValue))
+                .map(Map.Entry::getKey);
+    }
+
+    /**
+     * Creates a host that just has an id.
+     */
+    private static Host createHost(final int id) {
+        return (Host) Proxy.newProxyInstance(
+                Host.class.getClassLoader(), new Class<?>[]{Host.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getId": return id;
+                        case "hashCode": return id;
+                        case "equals": return proxy == args[0];
+                        case "toString": return "Host " + id;
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
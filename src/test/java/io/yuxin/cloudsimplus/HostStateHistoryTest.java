@@ -0,0 +1,135 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.HostStateHistoryEntry;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that both {@link HostStateHistory} implementations keep the same entries,
+ * and that merging runs and evicting entries keep the SLA metrics of the host.
+ *
+ * @author yuxin wu
+ */
+public class HostStateHistoryTest {
+    private static final int ENTRIES = 500;
+    private static final int MAX_ENTRIES = 16;
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void bothImplementationsKeepTheSameEntries() {
+        for (final int maxEntries : new int[]{HostStateHistory.UNBOUNDED, MAX_ENTRIES}) {
+            for (final boolean mergeRuns : new boolean[]{false, true}) {
+                final HostStateHistory objects = new ObjectHostStateHistory(maxEntries, mergeRuns);
+                final HostStateHistory columns = new ColumnarHostStateHistory(maxEntries, mergeRuns);
+                final Random random = new Random(1);
+                double time = 0;
+                for (int i = 0; i < ENTRIES; i++) {
+                    time = nextTime(random, time);
+                    final double[] state = nextState(random);
+                    objects.add(time, state[0], state[1], state[2] != 0);
+                    columns.add(time, state[0], state[1], state[2] != 0);
+                }
+
+                final String history = "maxEntries " + maxEntries + ", mergeRuns " + mergeRuns;
+                if(maxEntries != HostStateHistory.UNBOUNDED) {
+                    assertEquals(history, maxEntries, objects.size());
+                }
+                assertEntries(history, objects.asList(), columns.asList());
+            }
+        }
+    }
+
+    @Test
+    public void mergedRunsKeepTheSlaTotals() {
+        final SimpleHost plain = createHost(new ColumnarHostStateHistory(HostStateHistory.UNBOUNDED, false));
+        final SimpleHost columns = createHost(new ColumnarHostStateHistory(HostStateHistory.UNBOUNDED, true));
+        final SimpleHost objects = createHost(new ObjectHostStateHistory(HostStateHistory.UNBOUNDED, true));
+        addEntries(plain, columns, objects);
+
+        assertTrue("Runs should be merged", columns.getStateHistory().size() < plain.getStateHistory().size());
+        assertEntries("merged", objects.getStateHistory(), columns.getStateHistory());
+        for (final SimpleHost merged : new SimpleHost[]{columns, objects}) {
+            assertSameSla(plain, merged);
+            // walking the merged history gives the totals of the whole history too
+            assertEquals(walkedSla(plain), walkedSla(merged), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void evictedEntriesKeepTheSlaSinceTheStart() {
+        final SimpleHost plain = createHost(new ObjectHostStateHistory());
+        final SimpleHost bounded = createHost(new ColumnarHostStateHistory(MAX_ENTRIES, true));
+        addEntries(plain, bounded);
+
+        assertEquals(MAX_ENTRIES, bounded.getStateHistory().size());
+        // the accumulated SLA, which Helper uses for a SimpleHost, still covers the evicted entries
+        assertSameSla(plain, bounded);
+        assertEquals(
+                new Helper().getSlaViolationTimePercentageForHosts(Collections.singletonList(plain)),
+                new Helper().getSlaViolationTimePercentageForHosts(Collections.singletonList(bounded)), TOLERANCE);
+    }
+
+    private static SimpleHost createHost(final HostStateHistory stateHistory) {
+        return (SimpleHost) Helper.createALazzySimpleHost(stateHistory);
+    }
+
+    private static void addEntries(final SimpleHost... hosts) {
+        final Random random = new Random(2);
+        double time = 0;
+        for (int i = 0; i < ENTRIES; i++) {
+            time = nextTime(random, time);
+            final double[] state = nextState(random);
+            for (final SimpleHost host : hosts) {
+                host.addStateHistoryEntry(time, state[0], state[1], state[2] != 0);
+            }
+        }
+    }
+
+    /**
+     * Gets the time of the next entry, which sometimes is the time of the last one, replacing it.
+     */
+    private static double nextTime(final Random random, final double time) {
+        return random.nextInt(8) == 0 ? time : time + 5 + random.nextInt(3) * 5;
+    }
+
+    /**
+     * Gets the allocated MIPS, requested MIPS and active flag (1 or 0) of the next entry,
+     * which repeats the previous state most of the time, so that there are runs to merge.
+     */
+    private static double[] nextState(final Random random) {
+        final int state = random.nextInt(10) < 7 ? 0 : random.nextInt(4);
+        switch (state) {
+            case 0: return new double[]{1000, 1000, 1};
+            case 1: return new double[]{800, 1000, 1};
+            case 2: return new double[]{0, 500, 0};
+            default: return new double[]{0, 0, 1};
+        }
+    }
+
+    private static void assertEntries(final String history, final List<HostStateHistoryEntry> expected, final List<HostStateHistoryEntry> actual) {
+        assertEquals(history, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            final String entry = history + ", entry " + i;
+            assertEquals(entry, expected.get(i).getTime(), actual.get(i).getTime(), 0);
+            assertEquals(entry, expected.get(i).getAllocatedMips(), actual.get(i).getAllocatedMips(), 0);
+            assertEquals(entry, expected.get(i).getRequestedMips(), actual.get(i).getRequestedMips(), 0);
+            assertEquals(entry, expected.get(i).isActive(), actual.get(i).isActive());
+        }
+    }
+
+    private static void assertSameSla(final SimpleHost expected, final SimpleHost actual) {
+        assertEquals(expected.getSlaAccumulator().getTotalActiveTime(), actual.getSlaAccumulator().getTotalActiveTime(), TOLERANCE);
+        assertEquals(expected.getSlaAccumulator().getTotalSlaViolationTime(), actual.getSlaAccumulator().getTotalSlaViolationTime(), TOLERANCE);
+    }
+
+    private static double walkedSla(final SimpleHost host) {
+        return new Helper().getSlaViolationTimePercentageForHosts(
+                Collections.singletonList(SlaAccumulatorTest.historyOnly(host)));
+    }
+}
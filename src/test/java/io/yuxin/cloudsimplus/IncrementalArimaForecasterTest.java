@@ -0,0 +1,67 @@
+package io.yuxin.cloudsimplus;
+
+import com.github.signaflo.math.operations.DoubleFunctions;
+import com.github.signaflo.timeseries.TimeSeries;
+import com.github.signaflo.timeseries.forecast.Forecast;
+import com.github.signaflo.timeseries.model.arima.Arima;
+import com.github.signaflo.timeseries.model.arima.ArimaOrder;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the incremental forecaster gives the forecast of a model fitted by signaflo
+ * right after fitting it, which depends on the sign of the MA coefficients,
+ * the seasonal differencing folded into the AR polynomial and the padding of the first residuals.
+ *
+ * @author yuxin wu
+ */
+public class IncrementalArimaForecasterTest {
+    private static final int FIT_WINDOW = 48;
+    private static final int REFIT_INTERVAL = 12;
+    private static final int STEPS = 12;
+
+    @Test
+    public void seasonalModelGivesTheSignafloForecastAfterEachFit() {
+        assertSignafloForecastAfterEachFit(ArimaOrder.order(0, 1, 1, 0, 1, 1), 1);
+    }
+
+    @Test
+    public void autoRegressiveModelGivesTheSignafloForecastAfterEachFit() {
+        assertSignafloForecastAfterEachFit(ArimaOrder.order(2, 0, 1), 2);
+    }
+
+    private static void assertSignafloForecastAfterEachFit(final ArimaOrder order, final long seed) {
+        // the drift threshold is never reached, so the model is fitted just at the refit interval
+        final IncrementalArimaForecaster incremental =
+                new IncrementalArimaForecaster(order, FIT_WINDOW, REFIT_INTERVAL, Double.POSITIVE_INFINITY);
+        final double[] series = createSeries(FIT_WINDOW + 4 * REFIT_INTERVAL, seed);
+        for (int k = 0; k < series.length; k++) {
+            incremental.addObservation(series[k]);
+            final int observations = k + 1;
+            if(observations < FIT_WINDOW || (observations - FIT_WINDOW) % REFIT_INTERVAL != 0) {
+                continue;
+            }
+
+            final double[] window = Arrays.copyOfRange(series, observations - FIT_WINDOW, observations);
+            final Forecast expected = Arima.model(TimeSeries.from(DoubleFunctions.arrayFrom(window)), order).forecast(STEPS);
+            for (int step = 1; step <= 2; step++) {
+                final double value = expected.pointEstimates().at(step - 1);
+                assertEquals("Step " + step + " after " + observations + " observations",
+                        value, incremental.forecast(step), 1e-6 * Math.max(1, Math.abs(value)));
+            }
+        }
+    }
+
+    private static double[] createSeries(final int length, final long seed) {
+        final Random random = new Random(seed);
+        final double[] series = new double[length];
+        for (int k = 0; k < length; k++) {
+            series[k] = 5000 + 10 * k + 800 * Math.sin(2 * Math.PI * k / 12.0) + random.nextGaussian() * 100;
+        }
+        return series;
+    }
+}
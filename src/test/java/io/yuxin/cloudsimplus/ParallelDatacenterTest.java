@@ -0,0 +1,89 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.brokers.DatacenterBroker;
+import org.cloudbus.cloudsim.brokers.DatacenterBrokerSimple;
+import org.cloudbus.cloudsim.cloudlets.Cloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.hosts.HostStateHistoryEntry;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelDatacenterTest {
+    private static final int HOSTS = 16;
+    private static final int VMS = 32;
+    private static final int CLOUDLETS = 64;
+
+    @Test
+    public void parallelUpdateGivesTheSameResultsAsTheSequentialOne() {
+        final Run sequential = run(false);
+        final Run parallel = run(true);
+
+        assertEquals(sequential.simulationTime, parallel.simulationTime, 0);
+        assertEquals(sequential.power, parallel.power, 0);
+        assertEquals(sequential.finishedCloudlets, parallel.finishedCloudlets);
+        for (int i = 0; i < HOSTS; i++) {
+            final List<HostStateHistoryEntry> expected = sequential.hosts.get(i).getStateHistory();
+            final List<HostStateHistoryEntry> actual = parallel.hosts.get(i).getStateHistory();
+            assertTrue("The history of host " + i + " is empty", !expected.isEmpty());
+            assertEquals("History size of host " + i, expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                final String entry = "Entry " + j + " of host " + i;
+                assertEquals(entry, expected.get(j).getTime(), actual.get(j).getTime(), 0);
+                assertEquals(entry, expected.get(j).getAllocatedMips(), actual.get(j).getAllocatedMips(), 0);
+                assertEquals(entry, expected.get(j).getRequestedMips(), actual.get(j).getRequestedMips(), 0);
+                assertEquals(entry, expected.get(j).isActive(), actual.get(j).isActive());
+            }
+        }
+    }
+
+    private static Run run(final boolean parallel) {
+        final CloudSim simulation = new CloudSim();
+
+        final List<Host> hostList = new ArrayList<>(HOSTS);
+        for (int i = 0; i < HOSTS; i++) {
+            hostList.add(Helper.createALazzySimpleHost());
+        }
+
+        final List<Vm> vmList = new ArrayList<>(VMS);
+        for (int i = 0; i < VMS; i++) {
+            vmList.add(Helper.createALazzyVm(i));
+        }
+
+        final List<Cloudlet> cloudletList = new ArrayList<>(CLOUDLETS);
+        for (int i = 0; i < CLOUDLETS; i++) {
+            cloudletList.add(Helper.createALazzyCloudlet(i, CLOUDLETS));
+        }
+
+        // small partitions, so that a small fleet is updated by all the workers
+        final ParallelDatacenter datacenter = new ParallelDatacenter(
+                simulation, hostList, new VmAllocationPolicyMigrationDynamicUsagePredictionControl(), 4)
+                .setParallel(parallel)
+                .setMinHostsPerPartition(2);
+        datacenter.setSchedulingInterval(10);
+        final DatacenterBroker broker = new DatacenterBrokerSimple(simulation);
+        broker.submitVmList(vmList);
+        broker.submitCloudletList(cloudletList);
+
+        final Run run = new Run();
+        run.simulationTime = simulation.start();
+        datacenter.shutdownWorkers();
+        run.power = datacenter.getPower();
+        run.finishedCloudlets = broker.getCloudletFinishedList().size();
+        run.hosts = hostList;
+        return run;
+    }
+
+    private static final class Run {
+        private double simulationTime;
+        private double power;
+        private int finishedCloudlets;
+        private List<Host> hosts;
+    }
+}
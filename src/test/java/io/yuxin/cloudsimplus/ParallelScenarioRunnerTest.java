@@ -0,0 +1,49 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.util.Log;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelScenarioRunnerTest {
+    private static final List<SimulationScenario> SCENARIOS = Arrays.asList(
+            new SimulationScenario(20, 10, 50, 10),
+            new SimulationScenario(10, 5, 100, 60),
+            new SimulationScenario(40, 20, 100, 10),
+            new SimulationScenario(16, 8, 40, 60),
+            new SimulationScenario(30, 15, 75, 10));
+
+    @Test
+    public void parallelRunsGiveTheSameResultsAsTheSequentialOnes() {
+        Log.disable();
+        final ScenarioRunner runner = new ScenarioRunner(false);
+        final List<ScenarioResult> sequential = new ArrayList<>(SCENARIOS.size());
+        for (final SimulationScenario scenario : SCENARIOS) {
+            sequential.add(runner.run(scenario));
+        }
+
+        final List<ScenarioResult> received = new ArrayList<>();
+        final List<ScenarioResult> parallel;
+        try (ParallelScenarioRunner parallelRunner = new ParallelScenarioRunner(4)) {
+            parallel = parallelRunner.runAll(SCENARIOS, received::add);
+        }
+
+        assertEquals(SCENARIOS.size(), parallel.size());
+        assertEquals(SCENARIOS.size(), received.size());
+        for (int i = 0; i < SCENARIOS.size(); i++) {
+            final String scenario = SCENARIOS.get(i).getName();
+            final ScenarioResult expected = sequential.get(i);
+            final ScenarioResult actual = parallel.get(i);
+            assertEquals(scenario, SCENARIOS.get(i), actual.getScenario());
+            assertEquals(scenario, expected.getSimulationTime(), actual.getSimulationTime(), 0);
+            assertEquals(scenario, expected.getEnergy(), actual.getEnergy(), 0);
+            assertEquals(scenario, expected.getSlaViolation(), actual.getSlaViolation(), 0);
+            assertEquals(scenario, expected.getFinishedCloudlets(), actual.getFinishedCloudlets());
+            assertEquals(scenario, expected.getEvents(), actual.getEvents());
+        }
+    }
+}
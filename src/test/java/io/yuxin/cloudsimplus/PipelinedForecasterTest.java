@@ -0,0 +1,133 @@
+package io.yuxin.cloudsimplus;
+
+import com.github.signaflo.timeseries.model.arima.ArimaOrder;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PipelinedForecasterTest {
+    private static final ArimaOrder ORDER = ArimaOrder.order(0, 1, 1, 0, 1, 1);
+
+    @Test
+    public void forecastsAreTheSynchronousOnesOneObservationBehind() {
+        final IncrementalArimaForecaster synchronous = new IncrementalArimaForecaster(ORDER, 24);
+        final double[] expected = new double[4];
+        final double[] actual = new double[4];
+        int compared = 0;
+        try (PipelinedForecaster pipelined = new PipelinedForecaster(new IncrementalArimaForecaster(ORDER, 24))) {
+            final Random random = new Random(1);
+            boolean previousFitted = false;
+            for (int k = 0; k < 200; k++) {
+                final double value = 1000 + 300 * Math.sin(k / 5.0) + random.nextGaussian() * 20;
+
+                pipelined.addObservation(value);
+                pipelined.forecast(2, actual);
+                if(previousFitted) {
+                    assertArrayEquals(expected, actual);
+                    compared++;
+                }
+
+                synchronous.addObservation(value);
+                // the next pipelined forecasts are one step further from the last observation they know
+                synchronous.forecast(3, expected);
+                previousFitted = !Double.isNaN(expected[0]);
+            }
+        }
+        assertTrue("Too few intervals compared: " + compared, compared > 150);
+    }
+
+    @Test
+    public void forecasterRecoversAfterAFailedJob() {
+        final UsageForecaster failingOnce = new UsageForecaster() {
+            private int observations;
+            private double last;
+
+            @Override
+            public void addObservation(final double value) {
+                if(++observations == 3) {
+                    throw new IllegalStateException("Fit failed");
+                }
+                last = value;
+            }
+
+            @Override
+            public double forecast(final int steps) {
+                return last;
+            }
+        };
+
+        try (PipelinedForecaster pipelined = new PipelinedForecaster(failingOnce)) {
+            for (int k = 1; k <= 6; k++) {
+                pipelined.addObservation(k);
+                final double forecast = pipelined.forecast(1);
+                if(k == 1 || k == 4) {
+                    // no job before the first observation, and the job of the third one failed
+                    assertTrue("Forecast at " + k + " should be NaN", Double.isNaN(forecast));
+                } else {
+                    assertEquals("Forecast at " + k, k - 1, forecast, 0);
+                }
+            }
+            assertEquals(1, pipelined.getFailures());
+        }
+    }
+
+    @Test
+    public void failedJobsKeepTheActiveHosts() {
+        final UsageForecaster failing = new UsageForecaster() {
+            @Override
+            public void addObservation(final double value) {
+                throw new IllegalStateException("Fit failed");
+            }
+
+            @Override
+            public double forecast(final int steps) {
+                return 0;
+            }
+        };
+
+        try (PipelinedForecaster pipelined = new PipelinedForecaster(failing)) {
+            VmAllocationPolicyMigrationDynamicUsagePredictionControlTest.assertFleetIsKept(
+                    new VmAllocationPolicyMigrationDynamicUsagePredictionControl(2, pipelined));
+            assertEquals(VmAllocationPolicyMigrationDynamicUsagePredictionControlTest.INTERVALS - 1, pipelined.getFailures());
+        }
+    }
+
+    @Test
+    public void lateJobsKeepTheActiveHosts() {
+        // the jobs cannot end before the test releases them, so every deadline is missed
+        final CountDownLatch release = new CountDownLatch(1);
+        final UsageForecaster blocked = new UsageForecaster() {
+            @Override
+            public void addObservation(final double value) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public double forecast(final int steps) {
+                return 0;
+            }
+        };
+
+        try (PipelinedForecaster pipelined = new PipelinedForecaster(blocked, PipelinedForecaster.DEF_MAX_STEPS, 1)) {
+            VmAllocationPolicyMigrationDynamicUsagePredictionControlTest.assertFleetIsKept(
+                    new VmAllocationPolicyMigrationDynamicUsagePredictionControl(2, pipelined));
+            assertEquals(VmAllocationPolicyMigrationDynamicUsagePredictionControlTest.INTERVALS - 1, pipelined.getMissedDeadlines());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void assertArrayEquals(final double[] expected, final double[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Step " + (i + 1), expected[i], actual[i], 1e-9);
+        }
+    }
+}
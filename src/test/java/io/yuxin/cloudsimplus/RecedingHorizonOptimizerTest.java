@@ -0,0 +1,95 @@
+package io.yuxin.cloudsimplus;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author yuxin wu
+ */
+public class RecedingHorizonOptimizerTest {
+    private static final double HOST_CAPACITY = 4000;
+    private static final int MAX_HOSTS = 1000;
+
+    /**
+     * The energy cost of the controller: electricity price 0.6 * idle power of 86 W.
+     */
+    private static final double ENERGY_COST = 0.6 * 86;
+
+    @Test
+    public void oneStepHorizonGivesTheClosedFormHosts() {
+        final RecedingHorizonOptimizer optimizer = new RecedingHorizonOptimizer(1).setBootCost(0).setShutdownCost(0);
+        int same = 0;
+        int cases = 0;
+        for (final double sla : new double[]{0.01, 0.1, 1}) {
+            final double slaWeight = sla * 121;
+            for (double load = 1000; load <= 400_000; load *= 1.37) {
+                // the closed form of predictNextNumberOfHost
+                final double W = load / HOST_CAPACITY;
+                final double Xk = W + Math.sqrt(slaWeight * W / ENERGY_COST);
+                final int closedForm = (int) Xk + 1;
+
+                final int hosts = optimizer.optimize(new double[]{load}, closedForm, MAX_HOSTS, HOST_CAPACITY, ENERGY_COST, slaWeight);
+                final String message = "Load " + load + ", SLA weight " + slaWeight;
+                cases++;
+                if(hosts == closedForm) {
+                    same++;
+                    continue;
+                }
+                // the closed form rounds the real optimum up, the optimizer may take the integer below if it is cheaper
+                assertEquals(message, closedForm - 1, hosts);
+                assertTrue(message, cost(hosts, W, slaWeight) <= cost(closedForm, W, slaWeight));
+            }
+        }
+        assertTrue("Too few cases with the closed-form hosts: " + same + " of " + cases, same >= cases / 2);
+    }
+
+    @Test
+    public void hostsAreInsideTheFleet() {
+        final RecedingHorizonOptimizer optimizer = new RecedingHorizonOptimizer(3);
+        assertEquals(1, optimizer.optimize(new double[]{0, 0, 0}, 5, MAX_HOSTS, HOST_CAPACITY, ENERGY_COST, 121));
+        assertEquals(1, optimizer.optimize(new double[]{0, 0, 0}, -3, MAX_HOSTS, HOST_CAPACITY, ENERGY_COST, 121));
+
+        final double overload = 2 * MAX_HOSTS * HOST_CAPACITY;
+        assertEquals(MAX_HOSTS, optimizer.optimize(
+                new double[]{overload, overload, overload}, 10, MAX_HOSTS, HOST_CAPACITY, ENERGY_COST, 121));
+        assertEquals(MAX_HOSTS, optimizer.optimize(
+                new double[]{overload, overload, overload}, 10 * MAX_HOSTS, MAX_HOSTS, HOST_CAPACITY, ENERGY_COST, 121));
+        for (final int hosts : optimizer.getPlan()) {
+            assertTrue("Planned hosts " + hosts, hosts >= 1 && hosts <= MAX_HOSTS);
+        }
+    }
+
+    @Test
+    public void statesAreBoundedByMaxStates() {
+        final int maxStates = 8;
+        final int maxHosts = 100_000;
+        final RecedingHorizonOptimizer optimizer = new RecedingHorizonOptimizer(4).setMaxStates(maxStates);
+        final double[] forecast = {HOST_CAPACITY, 30_000 * HOST_CAPACITY, 90_000 * HOST_CAPACITY, 10 * HOST_CAPACITY};
+
+        final int hosts = optimizer.optimize(forecast, 1, maxHosts, HOST_CAPACITY, ENERGY_COST, 121);
+        assertTrue("Hosts " + hosts, hosts >= 1 && hosts <= maxHosts);
+        assertTrue("Evaluations " + optimizer.getLastEvaluations(),
+                optimizer.getLastEvaluations() <= (long) forecast.length * maxStates);
+    }
+
+    @Test
+    public void nonFiniteInputsGiveNoPlan() {
+        final RecedingHorizonOptimizer optimizer = new RecedingHorizonOptimizer(2);
+        final double[] forecast = {1000, 2000};
+        assertEquals(-1, optimizer.optimize(forecast, 2, MAX_HOSTS, HOST_CAPACITY, Double.NaN, 121));
+        assertEquals(-1, optimizer.optimize(forecast, 2, MAX_HOSTS, HOST_CAPACITY, Double.POSITIVE_INFINITY, 121));
+        assertEquals(-1, optimizer.optimize(forecast, 2, MAX_HOSTS, HOST_CAPACITY, ENERGY_COST, Double.NaN));
+        assertEquals(-1, optimizer.optimize(forecast, 2, MAX_HOSTS, HOST_CAPACITY, ENERGY_COST, Double.POSITIVE_INFINITY));
+        assertEquals(-1, optimizer.optimize(new double[]{Double.NaN, 2000}, 2, MAX_HOSTS, HOST_CAPACITY, ENERGY_COST, 121));
+        assertEquals(0, optimizer.getPlan().length);
+    }
+
+    /**
+     * The cost of a single step minimized by the closed form.
+     */
+    private static double cost(final int hosts, final double load, final double slaWeight) {
+        return ENERGY_COST * hosts + slaWeight * load / (hosts - load);
+    }
+}
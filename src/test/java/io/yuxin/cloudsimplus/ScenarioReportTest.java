@@ -0,0 +1,76 @@
+package io.yuxin.cloudsimplus;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScenarioReportTest {
+    @Test
+    public void linesAreWrittenAsResultsArrive() {
+        final StringWriter out = new StringWriter();
+        final ScenarioReport report = new ScenarioReport(out);
+        report.accept(result(2000));
+        report.accept(result(1000));
+
+        final String[] lines = out.toString().split("\\R");
+        assertEquals(3, lines.length);
+        assertEquals(ScenarioResult.CSV_HEADER, lines[0]);
+        assertEquals(2, report.getScenarios());
+        assertEquals(1000, report.getLeastEnergy().getEnergy(), 0);
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void failingHeaderIsReported() {
+        new ScenarioReport(new FailingWriter(0));
+    }
+
+    @Test
+    public void failingLineIsReported() {
+        final FailingWriter out = new FailingWriter(1);
+        final ScenarioReport report = new ScenarioReport(out);
+        try {
+            report.accept(result(1000));
+        } catch (UncheckedIOException e) {
+            assertTrue(out.flushes > 1);
+            return;
+        }
+        throw new AssertionError("A line not written must be reported");
+    }
+
+    private static ScenarioResult result(final double energy) {
+        return new ScenarioResult(
+                new SimulationScenario(20, 10, 50, 10), 100, 1_000_000, 10,
+                -1, -1, energy, 0.1, 50, new PhaseTimer(), 0);
+    }
+
+    /**
+     * A writer whose flushes fail after a number of successful ones.
+     */
+    private static final class FailingWriter extends Writer {
+        private final int successfulFlushes;
+        private int flushes;
+
+        FailingWriter(final int successfulFlushes) {
+            this.successfulFlushes = successfulFlushes;
+        }
+
+        @Override
+        public void write(final char[] buf, final int off, final int len) {/**/}
+
+        @Override
+        public void flush() throws IOException {
+            if(flushes++ >= successfulFlushes) {
+                throw new IOException("Disk full");
+            }
+        }
+
+        @Override
+        public void close() {/**/}
+    }
+}
@@ -0,0 +1,106 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.hosts.Host;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the SLA metrics accumulated by a {@link SimpleHost} as its state history grows
+ * are the same as the ones computed by walking the whole history.
+ *
+ * @author yuxin wu
+ */
+public class SlaAccumulatorTest {
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void accumulatedSlaIsTheOneOfTheWholeHistory() {
+        final List<SimpleHost> hosts = new ArrayList<>();
+
+        // always active, violating the SLA from time to time
+        final SimpleHost active = createHost();
+        active.addStateHistoryEntry(0, 1000, 1000, true);
+        active.addStateHistoryEntry(10, 800, 1000, true);
+        active.addStateHistoryEntry(20, 1000, 1000, true);
+        active.addStateHistoryEntry(25, 900, 1500, true);
+        // an entry with the same time replaces the previous one
+        active.addStateHistoryEntry(25, 1500, 1500, true);
+        active.addStateHistoryEntry(40, 1500, 1600, true);
+        active.addStateHistoryEntry(55, 0, 0, true);
+        hosts.add(active);
+
+        // off at the start, turned on midway
+        final SimpleHost turnedOn = createHost();
+        turnedOn.addStateHistoryEntry(0, 0, 0, false);
+        turnedOn.addStateHistoryEntry(10, 0, 0, false);
+        turnedOn.addStateHistoryEntry(20, 0, 500, false);
+        turnedOn.addStateHistoryEntry(30, 400, 500, true);
+        turnedOn.addStateHistoryEntry(45, 500, 500, true);
+        turnedOn.addStateHistoryEntry(55, 200, 700, true);
+        hosts.add(turnedOn);
+
+        // turned off and on again, with inactive intervals that requested more than allocated
+        final SimpleHost switched = createHost();
+        switched.addStateHistoryEntry(0, 300, 600, true);
+        switched.addStateHistoryEntry(12.5, 0, 600, false);
+        switched.addStateHistoryEntry(30, 0, 600, false);
+        switched.addStateHistoryEntry(37.5, 600, 600, true);
+        switched.addStateHistoryEntry(50, 100, 600, true);
+        switched.addStateHistoryEntry(55, 100, 600, true);
+        hosts.add(switched);
+
+        final Helper helper = new Helper();
+        final List<Host> accumulated = new ArrayList<>(hosts);
+        final List<Host> walked = new ArrayList<>();
+        for (final SimpleHost host : hosts) {
+            final Host historyOnly = historyOnly(host);
+            assertEquals("Host " + hosts.indexOf(host),
+                    helper.getSlaViolationTimePercentageForHosts(Collections.singletonList(historyOnly)),
+                    helper.getSlaViolationTimePercentageForHosts(Collections.singletonList(host)), TOLERANCE);
+            walked.add(historyOnly);
+        }
+
+        final double expected = helper.getSlaViolationTimePercentageForHosts(walked);
+        assertTrue("The SLA violation should be positive", expected > 0);
+        assertEquals(expected, helper.getSlaViolationTimePercentageForHosts(accumulated), TOLERANCE);
+        // 55 + 25 + 30 seconds active, 25 + 15 + 17.5 violating the SLA
+        assertEquals(57.5 / 110, expected, TOLERANCE);
+    }
+
+    @Test
+    public void hostNeverActiveHasNoActiveTime() {
+        final SimpleHost host = createHost();
+        host.addStateHistoryEntry(0, 0, 100, false);
+        host.addStateHistoryEntry(10, 0, 100, false);
+        assertEquals(0, host.getSlaAccumulator().getTotalActiveTime(), 0);
+        assertTrue(Double.isNaN(new Helper().getSlaViolationTimePercentageForHosts(
+                Collections.singletonList(historyOnly(host)))));
+        assertTrue(Double.isNaN(new Helper().getSlaViolationTimePercentageForHosts(Collections.singletonList(host))));
+    }
+
+    static SimpleHost createHost() {
+        return (SimpleHost) Helper.createALazzySimpleHost();
+    }
+
+    /**
+     * Creates a host which is not a {@link SimpleHost} and just has the state history of another one,
+     * so that {@link Helper} computes its SLA metrics by walking the history.
+     */
+    static Host historyOnly(final SimpleHost host) {
+        return (Host) Proxy.newProxyInstance(
+                Host.class.getClassLoader(), new Class<?>[]{Host.class},
+                (proxy, method, args) -> {
+                    if("getStateHistory".equals(method.getName())) {
+                        return host.getStateHistory();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,78 @@
+package io.yuxin.cloudsimplus;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author yuxin wu
+ */
+public class SlidingSlaAccumulatorTest {
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * A window of 100 seconds with buckets of 10 seconds.
+     */
+    private static SlidingSlaAccumulator createWindow() {
+        return new SlidingSlaAccumulator(100, 10);
+    }
+
+    @Test
+    public void bucketsExpireJustAfterTheWindowBoundary() {
+        final SlidingSlaAccumulator window = createWindow();
+        for (int end = 10; end <= 100; end += 10) {
+            window.addActiveInterval(end, 10, end <= 30);
+        }
+        assertWindow(window, 100, 30);
+
+        // the first bucket (0, 10] is still inside the window at time 100
+        window.advanceTo(100);
+        assertWindow(window, 100, 30);
+
+        window.advanceTo(100.5);
+        assertWindow(window, 90, 20);
+
+        // bucket (100, 110] is the newest until time 110
+        window.advanceTo(110);
+        assertWindow(window, 90, 20);
+
+        window.advanceTo(110.5);
+        assertWindow(window, 80, 10);
+    }
+
+    @Test
+    public void intervalIsSplitAmongTheBucketsItOverlaps() {
+        final SlidingSlaAccumulator window = createWindow();
+        for (int end = 10; end <= 100; end += 10) {
+            window.addActiveInterval(end, 10, false);
+        }
+
+        // from 95 to 105: half in the bucket (90, 100] and half in (100, 110], which expires (0, 10]
+        window.addActiveInterval(105, 10, true);
+        assertWindow(window, 100, 10);
+    }
+
+    @Test
+    public void partsOfAnIntervalOutOfTheWindowAreDropped() {
+        final SlidingSlaAccumulator window = createWindow();
+        window.addActiveInterval(250, 300, true);
+        assertWindow(window, 100, 100);
+    }
+
+    @Test
+    public void windowIsEmptyAfterAHorizonWithoutActiveIntervals() {
+        final SlidingSlaAccumulator window = createWindow();
+        window.addActiveInterval(50, 50, true);
+        assertWindow(window, 50, 50);
+
+        window.advanceTo(150);
+        assertWindow(window, 0, 0);
+        assertTrue(Double.isNaN(window.getSlaViolationTimePercentage()));
+    }
+
+    private static void assertWindow(final SlidingSlaAccumulator window, final double activeTime, final double slaViolationTime) {
+        assertEquals("Active time", activeTime, window.getTotalActiveTime(), TOLERANCE);
+        assertEquals("SLA violation time", slaViolationTime, window.getTotalSlaViolationTime(), TOLERANCE);
+    }
+}
@@ -0,0 +1,47 @@
+package io.yuxin.cloudsimplus;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author yuxin wu
+ */
+public class StabilityDetectorTest {
+    @Test
+    public void intervalIsNotStretchedWhenNoPlanIsApplied() {
+        final StabilityDetector detector = new StabilityDetector(4, 0.02, 3, 16);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(detector.shouldReplan(100));
+            detector.recordPlan(false);
+        }
+        assertEquals(1, detector.getStretch());
+        assertEquals(0, detector.getReplans());
+        assertEquals(0, detector.getSkips());
+    }
+
+    @Test
+    public void intervalIsStretchedAfterEachPlanAppliedWhileStable() {
+        final StabilityDetector detector = new StabilityDetector(4, 0.02, 3, 4);
+        int skips = 0;
+        for (int i = 0; i < 40; i++) {
+            if(detector.shouldReplan(100)) {
+                detector.recordPlan(true);
+            } else {
+                skips++;
+            }
+        }
+        assertEquals(4, detector.getStretch());
+        assertEquals(skips, detector.getSkips());
+        assertTrue(skips > 0);
+
+        // a failed plan re-plans at every interval again
+        while (!detector.shouldReplan(100)) {
+            skips++;
+        }
+        detector.recordPlan(false);
+        assertEquals(1, detector.getStretch());
+        assertTrue(detector.shouldReplan(100));
+    }
+}
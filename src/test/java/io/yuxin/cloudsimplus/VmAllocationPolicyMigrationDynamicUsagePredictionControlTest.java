@@ -0,0 +1,138 @@
+package io.yuxin.cloudsimplus;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.datacenters.DatacenterSimple;
+import org.cloudbus.cloudsim.hosts.Host;
+import org.cloudbus.cloudsim.vms.Vm;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author yuxin wu
+ */
+public class VmAllocationPolicyMigrationDynamicUsagePredictionControlTest {
+    private static final int HOSTS = 8;
+    private static final int LAG = 2;
+    static final int INTERVALS = 6;
+
+    /**
+     * A forecaster that is never ready, like one warming up or whose jobs keep failing.
+     */
+    private static final UsageForecaster NAN_FORECASTER = new UsageForecaster() {
+        @Override
+        public void addObservation(final double value) {/**/}
+
+        @Override
+        public double forecast(final int steps) {
+            return Double.NaN;
+        }
+    };
+
+    @Test
+    public void nanForecastKeepsTheActiveHosts() {
+        assertFleetIsKept(new VmAllocationPolicyMigrationDynamicUsagePredictionControl(LAG, NAN_FORECASTER));
+    }
+
+    @Test
+    public void nanHorizonForecastKeepsTheActiveHosts() {
+        final VmAllocationPolicyMigrationDynamicUsagePredictionControl policy =
+                new VmAllocationPolicyMigrationDynamicUsagePredictionControl(LAG, new UsageForecaster() {
+                    @Override
+                    public void addObservation(final double value) {/**/}
+
+                    @Override
+                    public double forecast(final int steps) {
+                        // a usable first step does not hide a missing step of the horizon
+                        return steps == 1 ? 1000 : Double.NaN;
+                    }
+                });
+        policy.setHorizonOptimizer(new RecedingHorizonOptimizer(4));
+        assertFleetIsKept(policy);
+    }
+
+    @Test
+    public void emptySlaWindowsGiveAFiniteSlaViolation() {
+        final VmAllocationPolicyMigrationDynamicUsagePredictionControl policy =
+                new VmAllocationPolicyMigrationDynamicUsagePredictionControl(LAG, new LastValueForecaster());
+        policy.setSlaWindowHorizon(300);
+        createDatacenter(policy);
+
+        // no host has an active interval yet, neither inside the windows nor since the start
+        for (int k = 0; k < LAG; k++) {
+            policy.getOptimizedAllocationMap(Collections.emptyList());
+        }
+        // the SLA violation falls back to 0, which the controller takes as 1
+        assertEquals(1, policy.getMetrics().getSlaViolation(), 0);
+    }
+
+    @Test
+    public void findHostForVmPicksTheHostOfTheStreamOverTheFreePesMap() {
+        final FreePesPolicy policy = new FreePesPolicy();
+        final List<Host> hostList = createDatacenter(policy);
+
+        // each host has 4 PEs and each VM 2, the VMs are placed so that there are ties
+        final int[] placements = {3, 5, 3, 0, 6, 7, 1, 5};
+        final List<Vm> vmList = new ArrayList<>();
+        for (int i = 0; i < placements.length; i++) {
+            final Vm vm = Helper.createALazzyVm(i);
+            assertEquals("Before VM " + i, policy.findHostAsStream(vm), policy.findHostForVm(vm));
+            assertTrue(policy.allocateHostForVm(vm, hostList.get(placements[i])));
+            vmList.add(vm);
+        }
+
+        final Vm probe = Helper.createALazzyVm(placements.length);
+        assertEquals(policy.findHostAsStream(probe), policy.findHostForVm(probe));
+        for (int i = 0; i < vmList.size(); i += 3) {
+            policy.deallocateHostForVm(vmList.get(i));
+            assertEquals("After removing VM " + i, policy.findHostAsStream(probe), policy.findHostForVm(probe));
+        }
+    }
+
+    /**
+     * A policy that also finds hosts as it did before the free PEs index.
+     */
+    private static final class FreePesPolicy extends VmAllocationPolicyMigrationDynamicUsagePredictionControl {
+        Optional<Host> findHostAsStream(final Vm vm) {
+            return FreePesIndexTest.findAsStream(getHostFreePesMap(), host -> host.isSuitableForVm(vm));
+        }
+    }
+
+    static void assertFleetIsKept(final VmAllocationPolicyMigrationDynamicUsagePredictionControl policy) {
+        final List<Host> hostList = createDatacenter(policy);
+        for (int k = 0; k < INTERVALS; k++) {
+            final Map<Vm, Host> migrationMap = policy.getOptimizedAllocationMap(Collections.emptyList());
+            assertTrue("No migration at interval " + k, migrationMap.isEmpty());
+            assertEquals("Active hosts at interval " + k, HOSTS, activeHosts(hostList));
+        }
+        assertEquals(LAG - 1, policy.getMetrics().getWarmupIntervals());
+        assertEquals(INTERVALS - LAG + 1, policy.getMetrics().getPredictionFailures());
+        assertEquals(0, policy.getMetrics().getHostsDeactivated());
+    }
+
+    static List<Host> createDatacenter(final VmAllocationPolicyMigrationDynamicUsagePredictionControl policy) {
+        final List<Host> hostList = new ArrayList<>(HOSTS);
+        for (int i = 0; i < HOSTS; i++) {
+            hostList.add(Helper.createALazzySimpleHost());
+        }
+        new DatacenterSimple(new CloudSim(), hostList, policy);
+        return hostList;
+    }
+
+    static int activeHosts(final List<Host> hostList) {
+        int active = 0;
+        for (final Host host : hostList) {
+            if(host.isActive()) {
+                active++;
+            }
+        }
+        return active;
+    }
+}